@@ -0,0 +1,155 @@
+package bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import image.AssetBundle;
+import image.AssetServer;
+
+/**
+ * Local load test of the AssetServer. The server is started on a free port serving an asset
+ * directory or bundle, and client threads request its images for the given time. A share of the
+ * requests is conditional, sending the ETag received before, and a share asks for a byte range, as
+ * browsers do when they revisit a view or resume a download. Requests per second, bytes per second
+ * and the number of responses of every status are printed.
+ *
+ * Usage: java -cp target/benchmarks.jar bench.AssetServerLoadTest
+ *     [assets=tools] [clients=32] [seconds=10] [conditional=0.5] [range=0.1]
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class AssetServerLoadTest {
+
+	/**
+	 * Runs the load test
+	 *
+	 * @param args key=value options
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		String assets = option(args, "assets", "tools");
+		int clients = Integer.parseInt(option(args, "clients", "32"));
+		int seconds = Integer.parseInt(option(args, "seconds", "10"));
+		double conditional = Double.parseDouble(option(args, "conditional", "0.5"));
+		double range = Double.parseDouble(option(args, "range", "0.1"));
+
+		//Responses are not delayed by the ACK of the client, as when the server is run by its main
+		if(System.getProperty(AssetServer.NODELAY_PROPERTY) == null) {
+			System.setProperty(AssetServer.NODELAY_PROPERTY, "true");
+		}
+		Path source = Paths.get(assets);
+		AssetServer server = Files.isDirectory(source) ? AssetServer.start(source, 0)
+				: AssetServer.start(AssetBundle.open(source), 0);
+		List<String> names = new ArrayList<String>();
+		if(Files.isDirectory(source)) {
+			try(DirectoryStream<Path> files = Files.newDirectoryStream(source, "*.{jpg,JPG,jpeg,png,PNG,gif,bmp}")) {
+				files.forEach(file -> names.add(file.getFileName().toString()));
+			}
+		}
+		else {
+			for(String name: AssetBundle.open(source).getNames()) {
+				if(!name.contains("#")) {
+					names.add(name);
+				}
+			}
+		}
+		if(names.isEmpty()) {
+			System.out.println("No images in " + assets);
+			server.stop();
+			return;
+		}
+		String base = "http://localhost:" + server.getPort() + AssetServer.PATH;
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+		LongAdder[] statuses = new LongAdder[600];
+		for(int i = 0; i < statuses.length; i++) {
+			statuses[i] = new LongAdder();
+		}
+		LongAdder bytes = new LongAdder();
+		AtomicLong errors = new AtomicLong();
+		long end = System.nanoTime() + seconds * 1_000_000_000L;
+		CountDownLatch done = new CountDownLatch(clients);
+		long start = System.nanoTime();
+		for(int c = 0; c < clients; c++) {
+			Random random = new Random(c);
+			Thread thread = new Thread(() -> {
+				String[] etags = new String[names.size()];
+				while(System.nanoTime() < end) {
+					int index = random.nextInt(names.size());
+					HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + names.get(index)));
+					if(etags[index] != null && random.nextDouble() < conditional) {
+						request.header("If-None-Match", etags[index]);
+					}
+					else if(random.nextDouble() < range) {
+						request.header("Range", "bytes=0-1023");
+					}
+					try {
+						HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+						statuses[response.statusCode()].increment();
+						bytes.add(response.body().length);
+						etags[index] = response.headers().firstValue("ETag").orElse(etags[index]);
+					}
+					catch(IOException e) {
+						errors.incrementAndGet();
+					}
+					catch(InterruptedException e) {
+						break;
+					}
+				}
+				done.countDown();
+			});
+			thread.start();
+		}
+		done.await();
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		server.stop();
+
+		long total = 0;
+		StringBuilder counts = new StringBuilder();
+		for(int status = 0; status < statuses.length; status++) {
+			long count = statuses[status].sum();
+			if(count > 0) {
+				counts.append(' ').append(status).append('=').append(count);
+				total += count;
+			}
+		}
+		System.out.printf("%d images, %d clients, %.1f s%n", names.size(), clients, elapsed);
+		System.out.printf("Requests per second: %.0f%n", total / elapsed);
+		System.out.printf("Megabytes per second: %.1f%n", bytes.sum() / elapsed / 1e6);
+		System.out.println("Responses:" + counts + (errors.get() > 0 ? " errors=" + errors.get() : ""));
+	}
+
+
+	/**
+	 * Gets value of a key=value option
+	 *
+	 * @param args String[] options
+	 * @param key String key of the option
+	 * @param defaultValue String value if the option is not given
+	 * @return String value
+	 */
+	private static String option(String[] args, String key, String defaultValue)
+	{
+		for(String arg: args) {
+			if(arg.startsWith(key + "=")) {
+				return arg.substring(key.length() + 1);
+			}
+		}
+		return defaultValue;
+	}
+
+}
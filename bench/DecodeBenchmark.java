@@ -0,0 +1,102 @@
+package bench;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import image.PreviewDecoder;
+
+/**
+ * JMH benchmark of decoding the JPEG location views of an asset directory. The files are read
+ * into memory once, so only decoding is measured, and every invocation decodes the next image.
+ * The full decode reads all pixels, the preview decode reads the subsampled preview the image
+ * loader shows before the full image is ready (PreviewDecoder).
+ *
+ * The viewer decodes full images with JavaFX, which needs a running toolkit, so the full decode
+ * is measured with ImageIO, which reads the same JPEG data.
+ *
+ * Usage: java -jar benchmarks.jar DecodeBenchmark [-p assets=tools]
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+	private static final int DISPLAY_WIDTH = 1200; // width the views are displayed at
+
+	@Param({"tools"})
+	public String assets;
+
+	@Param({"full", "preview"})
+	public String decoder;
+
+	private byte[][] images; // encoded views
+	private int next; // index of the next image
+
+
+	/**
+	 * Reads the JPEG files of the asset directory
+	 *
+	 * @throws IOException if files cannot be read
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		List<byte[]> files = new ArrayList<byte[]>();
+		try(DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get(assets), "*.{jpg,JPG,jpeg,JPEG}")) {
+			for(Path path: paths) {
+				files.add(Files.readAllBytes(path));
+			}
+		}
+		if(files.isEmpty()) {
+			throw new IOException("No JPEG images in " + assets);
+		}
+		images = files.toArray(new byte[files.size()][]);
+	}
+
+
+	/**
+	 * Decodes the next image
+	 *
+	 * @return BufferedImage decoded image
+	 * @throws IOException if image cannot be decoded
+	 */
+	@Benchmark
+	public BufferedImage decode() throws IOException
+	{
+		byte[] image = images[next];
+		next = (next + 1) % images.length;
+		if(decoder.equals("preview")) {
+			return PreviewDecoder.decode(new ByteArrayInputStream(image), DISPLAY_WIDTH / PreviewDecoder.PREVIEW_SCALE, 0);
+		}
+		return ImageIO.read(new ByteArrayInputStream(image));
+	}
+
+}
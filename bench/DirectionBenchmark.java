@@ -0,0 +1,103 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Direction;
+
+/**
+ * JMH benchmark of the Direction rotations and comparisons. The rotated direction is kept in a
+ * field, so every invocation depends on the previous one and the rotation cannot be folded into a
+ * constant by the JIT compiler.
+ *
+ * Usage: java -jar benchmarks.jar DirectionBenchmark
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectionBenchmark {
+
+	private Direction direction; // direction rotated by the benchmarks
+	private Direction other; // direction compared with the rotated one
+
+
+	/**
+	 * Sets the first directions
+	 */
+	@Setup
+	public void setUp()
+	{
+		direction = Direction.NORTH;
+		other = Direction.EAST;
+	}
+
+
+	/**
+	 * Turns left
+	 *
+	 * @return Direction
+	 */
+	@Benchmark
+	public Direction getLeft()
+	{
+		direction = direction.getLeft();
+		return direction;
+	}
+
+
+	/**
+	 * Turns right
+	 *
+	 * @return Direction
+	 */
+	@Benchmark
+	public Direction getRight()
+	{
+		direction = direction.getRight();
+		return direction;
+	}
+
+
+	/**
+	 * Turns around
+	 *
+	 * @return Direction
+	 */
+	@Benchmark
+	public Direction getOpposite()
+	{
+		direction = direction.getOpposite().getLeft();
+		return direction;
+	}
+
+
+	/**
+	 * Compares rotated direction with
+	 * the other one on all sides
+	 *
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean compare()
+	{
+		direction = direction.getRight();
+		return direction.isOpposite(other) | direction.isLeft(other) | direction.isRight(other);
+	}
+
+}
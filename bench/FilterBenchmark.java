@@ -0,0 +1,139 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import image.BrightnessContrastFilter;
+import image.FilterChain;
+import image.FilterPipeline;
+import image.GrayscaleFilter;
+import image.PixelFilter;
+import image.SepiaFilter;
+import image.VignetteFilter;
+
+/**
+ * JMH benchmark of the pixel filters. Every invocation filters a 4 megapixel image, and operations
+ * per invocation are set to 4, so the reported throughput is in megapixels per second. The benchmark
+ * is run for every filter and for several numbers of threads of the fork/join pool.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+	
+	private static final int WIDTH = 2000; // width of the image
+	private static final int HEIGHT = 2000; // height of the image, 4 megapixels in total
+	
+	@Param({"sepia", "grayscale", "brightnessContrast", "vignette", "chain"})
+	public String filterName;
+	
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+	
+	private int[] source; // original pixels
+	private int[] pixels; // pixels filtered by the benchmark
+	private ForkJoinPool pool; // threads filtering the image
+	private FilterPipeline pipeline; // pipeline using the pool
+	private PixelFilter filter; // benchmarked filter
+	
+	
+	/**
+	 * Creates random image and the filter
+	 */
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		Random random = new Random(42);
+		source = new int[WIDTH * HEIGHT];
+		for(int i = 0; i < source.length; i++) {
+			source[i] = 0xFF000000 | random.nextInt(0x1000000);
+		}
+		pixels = new int[source.length];
+		pool = new ForkJoinPool(threads);
+		pipeline = new FilterPipeline(pool, FilterPipeline.DEFAULT_BAND_ROWS);
+		filter = createFilter(filterName);
+	}
+	
+	
+	/**
+	 * Restores original pixels, so every 
+	 * invocation filters the same image
+	 */
+	@Setup(Level.Invocation)
+	public void restorePixels()
+	{
+		System.arraycopy(source, 0, pixels, 0, source.length);
+	}
+	
+	
+	/**
+	 * Stops the threads of the pool
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+	
+	
+	/**
+	 * Filters the image
+	 * 
+	 * @return int[] filtered pixels
+	 */
+	@Benchmark
+	@OperationsPerInvocation(WIDTH * HEIGHT / 1000000)
+	public int[] filter()
+	{
+		pipeline.apply(filter, pixels, WIDTH, HEIGHT);
+		return pixels;
+	}
+	
+	
+	/**
+	 * Creates filter by name
+	 * 
+	 * @param name String name of the benchmarked filter
+	 * @return PixelFilter
+	 */
+	private static PixelFilter createFilter(String name)
+	{
+		switch(name) {
+		    case "sepia":
+		    	return new SepiaFilter(0.7);
+		    case "grayscale":
+		    	return new GrayscaleFilter();
+		    case "brightnessContrast":
+		    	return new BrightnessContrastFilter(0.1, 1.2);
+		    case "vignette":
+		    	return new VignetteFilter(0.5);
+		    case "chain":
+		    	return new FilterChain(new BrightnessContrastFilter(0.1, 1.2), new SepiaFilter(0.7), new VignetteFilter(0.5));
+		    default:
+		    	throw new IllegalArgumentException("Unknown filter " + name);
+		}
+	}
+
+}
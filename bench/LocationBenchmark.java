@@ -0,0 +1,136 @@
+package bench;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Direction;
+import model.Item;
+import model.Location;
+
+/**
+ * JMH benchmark of a single Location: moving forward to its neighbours and finding and removing
+ * its items. The Location has a neighbour on every side and the given number of items. Items are
+ * searched by name, so the last item, which is found last, and a missing item are measured.
+ *
+ * Usage: java -jar benchmarks.jar LocationBenchmark
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationBenchmark {
+
+	@Param({"1", "3", "16"})
+	public int items;
+
+	private Location location; // benchmarked Location
+	private Direction direction; // direction the Location is left in
+	private String lastItem; // name of the item found last
+
+
+	/**
+	 * Creates the Location, its neighbours and items
+	 */
+	@Setup
+	public void setUp()
+	{
+		location = createLocation("Centre");
+		for(Direction side: Direction.values()) {
+			location.addNeighbour(createLocation(side.name()), side);
+		}
+		for(int i = 0; i < items; i++) {
+			location.addContent(new Item("Item" + i, "item" + i + ".png"));
+		}
+		lastItem = "Item" + (items - 1);
+		direction = Direction.NORTH;
+	}
+
+
+	/**
+	 * Enters the neighbour on every side in turn
+	 *
+	 * @return Location entered
+	 */
+	@Benchmark
+	public Location moveForward()
+	{
+		direction = direction.getRight();
+		location.setCurrentDirection(direction);
+		return location.moveForward();
+	}
+
+
+	/**
+	 * Finds the item added last
+	 *
+	 * @return Item
+	 */
+	@Benchmark
+	public Item getItem()
+	{
+		return location.getItem(lastItem);
+	}
+
+
+	/**
+	 * Searches for an item which is not there
+	 *
+	 * @return null
+	 */
+	@Benchmark
+	public Item getMissingItem()
+	{
+		return location.getItem("Missing");
+	}
+
+
+	/**
+	 * Removes the item added last and adds it back,
+	 * so every invocation finds the same items
+	 *
+	 * @return Item removed
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Item removeItem()
+	{
+		Item item = location.removeItem(lastItem);
+		location.addContent(item);
+		return item;
+	}
+
+
+	/**
+	 * Creates Location with a view in every direction
+	 *
+	 * @param name String name of the Location
+	 * @return Location
+	 */
+	private static Location createLocation(String name)
+	{
+		HashMap<Direction, String> views = new HashMap<Direction, String>();
+		for(Direction side: Direction.values()) {
+			views.put(side, name + side.name() + ".jpg");
+		}
+		return new Location(name, views);
+	}
+
+}
@@ -0,0 +1,154 @@
+package bench;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Direction;
+import model.LocationGraph;
+import model.World;
+
+/**
+ * JMH benchmark of the navigation core: turning, moving forward and querying items of the World,
+ * for registered Locations and for the LocationGraph. The steady state of all benchmarks is expected
+ * to be free of allocation. Run it with the GC profiler and check that gc.alloc.rate.norm is 0 B/op:
+ *
+ * java -jar benchmarks.jar NavigationAllocationBenchmark -prof gc
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NavigationAllocationBenchmark {
+
+	@Param({"objects", "graph"})
+	public String model;
+
+	private World world; // benchmarked World
+	private Direction direction; // direction rotated by the Direction benchmarks
+
+
+	/**
+	 * Creates the World and picks one item,
+	 * so collected items are not empty
+	 */
+	@Setup
+	public void setUp()
+	{
+		world = model.equals("graph") ? new World(LocationGraph.of(new World())) : new World();
+		world.pickItem("Basket");
+		direction = Direction.NORTH;
+	}
+
+
+	/**
+	 * Rotates direction by table lookups
+	 *
+	 * @return Direction
+	 */
+	@Benchmark
+	@OperationsPerInvocation(3)
+	public Direction rotate()
+	{
+		direction = direction.getLeft().getOpposite().getRight();
+		return direction;
+	}
+
+
+	/**
+	 * Turns left
+	 *
+	 * @return String url of the view
+	 */
+	@Benchmark
+	public String goLeft()
+	{
+		return world.goLeft();
+	}
+
+
+	/**
+	 * Enters the neighbour to the North and comes back,
+	 * so every invocation starts in the same Location
+	 *
+	 * @return String url of the last view
+	 */
+	@Benchmark
+	@OperationsPerInvocation(6)
+	public String goForwardAndBack()
+	{
+		world.goForward();
+		world.goRight();
+		world.goRight();
+		world.goForward();
+		world.goRight();
+		return world.goRight();
+	}
+
+
+	/**
+	 * Checks if moving forward is possible
+	 *
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean canMoveForward()
+	{
+		return world.canMoveForward();
+	}
+
+
+	/**
+	 * Gets view of the current Location
+	 *
+	 * @return String url of the view
+	 */
+	@Benchmark
+	public String getCurrentView()
+	{
+		return world.getCurrentView();
+	}
+
+
+	/**
+	 * Gets names of the items in the current Location
+	 *
+	 * @return List<String> item names
+	 */
+	@Benchmark
+	public List<String> getItemNames()
+	{
+		return world.getItemNames();
+	}
+
+
+	/**
+	 * Gets names of the collected items
+	 *
+	 * @return Collection<String> item names
+	 */
+	@Benchmark
+	public Collection<String> getCollectedItemNames()
+	{
+		return world.getCollectedItemNames();
+	}
+
+}
@@ -0,0 +1,270 @@
+
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.scene.layout.AnchorPane;
+import javafx.stage.Stage;
+
+/**
+ * Headless benchmark of click-to-pixels latency. The viewer is started on the headless Monocle glass
+ * platform with software rendering, so it runs on a plain Linux machine without a display. A script of
+ * steps is replayed on WorldController and time is measured from calling the handler until the full
+ * decoded image is set on imageView (for pick and put, until the handler has updated the view).
+ *
+ * Steps are separated by commas: L (left), R (right), F (forward), PICK (first item of the Location)
+ * and PUT (first collected item). Results are printed and written as JSON for regression tracking.
+ *
+ * Usage: java -cp target/benchmarks.jar NavigationLatencyBenchmark
+ *     [script=L,L,F,R,PICK,PUT] [iterations=100] [warmup=10] [sepia=true] [output=latency.json]
+ *
+ * The openjfx-monocle jar matching the JavaFX version has to be on the class path. The benchmark
+ * jar built by the bench profile of pom.xml holds it.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class NavigationLatencyBenchmark {
+
+	private static final long STEP_TIMEOUT_SECONDS = 30; // maximum time of one step
+
+	private WorldController controller; // controller of the started viewer
+
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args key=value options
+	 * @throws Exception if viewer cannot be started or a step times out
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		options.put("script", "L,L,F,R,PICK,PUT,R,F");
+		options.put("iterations", "100");
+		options.put("warmup", "10");
+		options.put("sepia", "true");
+		options.put("output", "latency.json");
+		for(String arg: args) {
+			int separator = arg.indexOf('=');
+			if(separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+				System.out.println("Unknown option " + arg + ", options are " + options.keySet());
+				System.exit(1);
+			}
+			options.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+
+		//Headless glass platform and software pipeline, must be set before JavaFX starts
+		System.setProperty("glass.platform", "Monocle");
+		System.setProperty("monocle.platform", "Headless");
+		System.setProperty("prism.order", "sw");
+		System.setProperty("java.awt.headless", "true");
+
+		NavigationLatencyBenchmark benchmark = new NavigationLatencyBenchmark();
+		benchmark.start(Boolean.parseBoolean(options.get("sepia")));
+		List<String> script = Arrays.asList(options.get("script").split(","));
+		benchmark.run(script, Integer.parseInt(options.get("warmup")));
+		Map<String, ArrayList<Long>> latencies = benchmark.run(script, Integer.parseInt(options.get("iterations")));
+
+		String json = toJson(options, latencies);
+		Files.write(Paths.get(options.get("output")), json.getBytes(StandardCharsets.UTF_8));
+		System.out.print(json);
+		Platform.exit();
+		System.exit(0);
+	}
+
+
+	/**
+	 * Starts JavaFX and loads the viewer the same way as MainProgram
+	 *
+	 * @param sepia true if sepia filter is applied as in the application
+	 * @throws Exception if the viewer cannot be loaded
+	 */
+	private void start(boolean sepia) throws Exception
+	{
+		CountDownLatch started = new CountDownLatch(1);
+		Exception[] failure = new Exception[1];
+		Platform.startup(() -> {
+			try {
+				URL fxml = WorldController.class.getResource("WorldViewer.fxml");
+				FXMLLoader loader = new FXMLLoader(fxml);
+				AnchorPane page = (AnchorPane) loader.load();
+				Stage stage = new Stage();
+				stage.setScene(new Scene(page));
+				stage.show();
+				controller = (WorldController) loader.getController();
+				if(sepia) {
+					controller.applySepia();
+				}
+			}
+			catch(IOException | RuntimeException e) {
+				failure[0] = e;
+			}
+			started.countDown();
+		});
+		started.await();
+		if(failure[0] != null) {
+			throw failure[0];
+		}
+	}
+
+
+	/**
+	 * Replays the script
+	 *
+	 * @param script List of String steps
+	 * @param iterations int number of times the script is replayed
+	 * @return latencies in nanoseconds by step
+	 * @throws Exception if a step times out
+	 */
+	private Map<String, ArrayList<Long>> run(List<String> script, int iterations) throws Exception
+	{
+		Map<String, ArrayList<Long>> latencies = new LinkedHashMap<String, ArrayList<Long>>();
+		for(int i = 0; i < iterations; i++) {
+			for(String step: script) {
+				long latency = measure(step.trim().toUpperCase());
+				if(latency >= 0) {
+					latencies.computeIfAbsent(step.trim().toUpperCase(), s -> new ArrayList<Long>()).add(latency);
+				}
+			}
+		}
+		return latencies;
+	}
+
+
+	/**
+	 * Performs one step on the JavaFX application thread
+	 * and waits until its image is shown
+	 *
+	 * @param step String L, R, F, PICK or PUT
+	 * @return long latency in nanoseconds or -1, if step is not possible
+	 * @throws Exception if step times out
+	 */
+	private long measure(String step) throws Exception
+	{
+		CountDownLatch done = new CountDownLatch(1);
+		long[] time = new long[2];
+		Platform.runLater(() -> {
+			controller.imageLoader.setDisplayListener(url -> {
+				time[1] = System.nanoTime();
+				done.countDown();
+			});
+			time[0] = System.nanoTime();
+			switch(step) {
+			    case "L":
+			    	controller.goLeft(null);
+			    	break;
+			    case "R":
+			    	controller.goRight(null);
+			    	break;
+			    case "F":
+			    	controller.goForward(null);
+			    	break;
+			    case "PICK":
+			    case "PUT":
+			    	//Pick and put do not change the location image
+			    	controller.imageLoader.setDisplayListener(null);
+			    	List<String> names = step.equals("PICK") ? controller.world.getItemNames()
+			    			: new ArrayList<String>(controller.world.getCollectedItemNames());
+			    	if(names.isEmpty()) {
+			    		time[0] = -1;
+			    	}
+			    	else if(step.equals("PICK")) {
+			    		controller.handlePickItem(names.get(0));
+			    	}
+			    	else {
+			    		controller.handlePutItem(names.get(0));
+			    	}
+			    	time[1] = System.nanoTime();
+			    	done.countDown();
+			    	break;
+			    default:
+			    	throw new IllegalArgumentException("Unknown step " + step);
+			}
+		});
+		if(!done.await(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			throw new IllegalStateException("Step " + step + " timed out");
+		}
+		return time[0] < 0 ? -1 : time[1] - time[0];
+	}
+
+
+	/**
+	 * Formats options and percentiles of the latencies as JSON
+	 *
+	 * @param options Map of benchmark options
+	 * @param latencies latencies in nanoseconds by step
+	 * @return String JSON document
+	 */
+	private static String toJson(Map<String, String> options, Map<String, ArrayList<Long>> latencies)
+	{
+		ArrayList<Long> all = new ArrayList<Long>();
+		for(ArrayList<Long> values: latencies.values()) {
+			all.addAll(values);
+		}
+		StringBuilder json = new StringBuilder();
+		json.append("{\n  \"benchmark\": \"navigationLatency\",\n  \"unit\": \"ms\",\n  \"options\": {");
+		String separator = "";
+		for(Map.Entry<String, String> option: options.entrySet()) {
+			json.append(separator).append('"').append(option.getKey()).append("\": \"").append(option.getValue()).append('"');
+			separator = ", ";
+		}
+		json.append("},\n  \"steps\": {\n");
+		for(Map.Entry<String, ArrayList<Long>> step: latencies.entrySet()) {
+			json.append("    \"").append(step.getKey()).append("\": ").append(summarise(step.getValue())).append(",\n");
+		}
+		json.append("    \"ALL\": ").append(summarise(all)).append("\n  }\n}\n");
+		return json.toString();
+	}
+
+
+	/**
+	 * Summarises latencies as a JSON object
+	 *
+	 * @param latencies List of latencies in nanoseconds
+	 * @return String JSON object with count, p50, p99 and max in milliseconds
+	 */
+	private static String summarise(List<Long> latencies)
+	{
+		long[] sorted = new long[latencies.size()];
+		for(int i = 0; i < sorted.length; i++) {
+			sorted[i] = latencies.get(i);
+		}
+		Arrays.sort(sorted);
+		return String.format(Locale.ROOT, "{\"count\": %d, \"p50\": %.3f, \"p99\": %.3f, \"max\": %.3f}",
+				sorted.length, percentile(sorted, 0.50), percentile(sorted, 0.99),
+				sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+	}
+
+
+	/**
+	 * Gets percentile of sorted latencies (nearest rank)
+	 *
+	 * @param sorted long[] sorted latencies in nanoseconds
+	 * @param fraction double percentile from 0 to 1
+	 * @return double latency in milliseconds
+	 */
+	private static double percentile(long[] sorted, double fraction)
+	{
+		if(sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(fraction * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+	}
+
+}
@@ -0,0 +1,125 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.LocationGraph;
+import model.MappedWorldGraph;
+import model.World;
+
+/**
+ * Synthetic worlds of any size for the benchmarks. Locations form a grid which wraps around at the
+ * edges (a torus), so moving forward is always possible and a walk never gets stuck at a border.
+ * Every ITEM_STEP-th Location holds one item, the start Location holds item "Item0". The grid is as
+ * square as the size allows, 10 Locations are a 2 x 5 grid and 1000000 Locations 1000 x 1000.
+ *
+ * A World is read from a world file written to a temporary file, so the text of a million
+ * Locations is not held in memory, and is represented by registered Locations ("objects"), by the
+ * LocationGraph ("graph") or by the memory-mapped MappedWorldGraph ("mapped").
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+final class SyntheticWorld {
+
+	static final String START_ITEM = "Item0"; // name of the item in the start Location
+	private static final int ITEM_STEP = 16; // Locations per item
+
+
+	/**
+	 * Private constructor, class has only static methods
+	 */
+	private SyntheticWorld()
+	{
+	}
+
+
+	/**
+	 * Creates World of a grid of Locations
+	 *
+	 * @param size int number of Locations
+	 * @param model String "objects", "graph" or "mapped"
+	 * @return World at the start Location facing NORTH
+	 * @throws IOException if temporary files cannot be written
+	 */
+	static World create(int size, String model) throws IOException
+	{
+		Path file = Files.createTempFile("synthetic", ".world");
+		Path graphFile = Files.createTempFile("synthetic", ".wgraph");
+		try {
+			write(size, file);
+			World world;
+			try(Reader source = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				world = new World(source);
+			}
+			switch(model) {
+			    case "objects":
+			    	return world;
+			    case "graph":
+			    	return new World(LocationGraph.of(world));
+			    case "mapped":
+			    	//File stays mapped after it is deleted
+			    	MappedWorldGraph.write(world, graphFile);
+			    	return new World(MappedWorldGraph.open(graphFile));
+			    default:
+			    	throw new IllegalArgumentException("Unknown model " + model);
+			}
+		}
+		finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(graphFile);
+		}
+	}
+
+
+	/**
+	 * Writes world file of a grid of Locations
+	 *
+	 * @param size int number of Locations
+	 * @param file Path of the world file
+	 * @throws IOException if file cannot be written
+	 */
+	static void write(int size, Path file) throws IOException
+	{
+		int width = getWidth(size);
+		int height = size / width;
+		try(BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for(int i = 0; i < size; i++) {
+				out.write("location\tL" + i + "\tn" + i % 4 + ".jpg\ts" + i % 4 + ".jpg\tw" + i % 4 + ".jpg\te" + i % 4 + ".jpg\n");
+			}
+			for(int y = 0; y < height; y++) {
+				for(int x = 0; x < width; x++) {
+					int i = y * width + x;
+					out.write("neighbour\tL" + i + "\tEAST\tL" + (y * width + (x + 1) % width) + "\n");
+					out.write("neighbour\tL" + i + "\tNORTH\tL" + ((y + 1) % height * width + x) + "\n");
+				}
+			}
+			for(int i = 0; i < size; i += ITEM_STEP) {
+				out.write("item\tL" + i + "\tItem" + i + "\titem" + i % 4 + ".png\n");
+			}
+			out.write("start\tL0\n");
+		}
+	}
+
+
+	/**
+	 * Gets width of the grid, the largest divisor
+	 * of the size not greater than its square root
+	 *
+	 * @param size int number of Locations
+	 * @return int number of Locations in a row
+	 */
+	static int getWidth(int size)
+	{
+		int width = (int) Math.sqrt(size);
+		while(size % width != 0) {
+			width--;
+		}
+		return width;
+	}
+
+}
@@ -0,0 +1,144 @@
+package bench;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.World;
+
+/**
+ * JMH benchmark of navigating and moving items in synthetic worlds of 10, 10 thousand and 1
+ * million Locations, see SyntheticWorld, for every representation of the World. Moving forward
+ * walks straight along a column of the grid, the random walk turns randomly before every step and
+ * spreads over the whole grid, so it also measures how the World behaves when its Locations do
+ * not fit into the CPU caches.
+ *
+ * Creating a World of a million Locations takes seconds and up to a gigabyte of heap, so the
+ * benchmark is forked with a larger heap.
+ *
+ * Usage: java -jar benchmarks.jar WorldBenchmark [-p size=1000000] [-p model=graph]
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class WorldBenchmark {
+
+	private static final int TURNS = 4096; // length of the random turn sequence, a power of two
+
+	@Param({"10", "10000", "1000000"})
+	public int size;
+
+	@Param({"objects", "graph", "mapped"})
+	public String model;
+
+	private World world; // benchmarked World
+	private byte[] turns; // 0 straight on, 1 left, 2 right before every step of the random walk
+	private int step; // index of the next turn
+
+
+	/**
+	 * Creates the World at its start Location
+	 *
+	 * @throws IOException if the World cannot be created
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		world = SyntheticWorld.create(size, model);
+		Random random = new Random(42);
+		turns = new byte[TURNS];
+		for(int i = 0; i < turns.length; i++) {
+			turns[i] = (byte) random.nextInt(3);
+		}
+	}
+
+
+	/**
+	 * Moves forward, which is always
+	 * possible in the synthetic World
+	 *
+	 * @return String url of the view
+	 */
+	@Benchmark
+	public String goForward()
+	{
+		return world.goForward();
+	}
+
+
+	/**
+	 * Turns randomly and moves forward
+	 *
+	 * @return String url of the view
+	 */
+	@Benchmark
+	public String randomWalk()
+	{
+		byte turn = turns[step++ & (TURNS - 1)];
+		if(turn == 1) {
+			world.goLeft();
+		}
+		else if(turn == 2) {
+			world.goRight();
+		}
+		return world.goForward();
+	}
+
+
+	/**
+	 * Picks item of the start Location and puts it back,
+	 * so every invocation finds the same items
+	 *
+	 * @return true if item was picked and put
+	 */
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public boolean pickAndPutItem()
+	{
+		return world.pickItem(SyntheticWorld.START_ITEM) & world.putItem(SyntheticWorld.START_ITEM);
+	}
+
+
+	/**
+	 * Picks item which is not in the current Location
+	 *
+	 * @return false
+	 */
+	@Benchmark
+	public boolean pickMissingItem()
+	{
+		return world.pickItem("Missing");
+	}
+
+
+	/**
+	 * Puts item which is not collected
+	 *
+	 * @return false
+	 */
+	@Benchmark
+	public boolean putMissingItem()
+	{
+		return world.putItem("Missing");
+	}
+
+}
@@ -0,0 +1,270 @@
+package image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * Runtime reader of a bundle file written by AssetPacker. The whole bundle is memory-mapped,
+ * so image bytes are read from the page cache shared by all processes using the bundle and are 
+ * handed to the decoder without being copied. Entries are found by image url ignoring case.
+ * 
+ * AssetBundle is immutable and can be used from several threads.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class AssetBundle {
+	
+	private final Path file; // bundle file
+	private final MappedByteBuffer data; // mapped bundle file
+	private final HashMap<String, Entry> entries; // position of the images by normalised name
+	
+	
+	/**
+	 * Constructor for the AssetBundle
+	 * 
+	 * @param file Path of the bundle
+	 * @param data mapped bundle file
+	 * @param entries position of the images by normalised name
+	 */
+	private AssetBundle(Path file, MappedByteBuffer data, HashMap<String, Entry> entries)
+	{
+		this.file = file;
+		this.data = data;
+		this.entries = entries;
+	}
+	
+	
+	/**
+	 * Maps bundle file and reads its index
+	 * 
+	 * @param file Path of the bundle
+	 * @return AssetBundle
+	 * @throws IOException if bundle cannot be read or is not a valid bundle
+	 */
+	public static AssetBundle open(Path file) throws IOException
+	{
+		MappedByteBuffer data;
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Bundle is too large " + file);
+			}
+			//Mapping stays valid after the channel is closed
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			if(data.getInt() != AssetPacker.MAGIC) {
+				throw new IOException("Not an asset bundle " + file);
+			}
+			if(data.getInt() != AssetPacker.VERSION) {
+				throw new IOException("Unsupported asset bundle version " + file);
+			}
+			int count = data.getInt();
+			HashMap<String, Entry> entries = new HashMap<String, Entry>(count * 2);
+			byte[] name = new byte[256];
+			for(int i = 0; i < count; i++) {
+				int nameLength = data.getShort() & 0xFFFF;
+				if(nameLength > name.length) {
+					name = new byte[nameLength];
+				}
+				data.get(name, 0, nameLength);
+				long offset = data.getLong();
+				int length = data.getInt();
+				if(offset < 0 || length < 0 || offset + length > data.capacity()) {
+					throw new IOException("Corrupted asset bundle " + file);
+				}
+				entries.put(new String(name, 0, nameLength, StandardCharsets.UTF_8), new Entry((int) offset, length));
+			}
+			return new AssetBundle(file, data, entries);
+		}
+		catch(BufferUnderflowException e) {
+			throw new IOException("Corrupted asset bundle " + file, e);
+		}
+	}
+	
+	
+	/**
+	 * Checks if bundle contains the image
+	 * 
+	 * @param url String image url
+	 * @return true if image is in the bundle
+	 */
+	public boolean contains(String url)
+	{
+		return entries.containsKey(AssetPacker.normalise(url));
+	}
+	
+	
+	/**
+	 * Gets bytes of the image. Returned buffer is a 
+	 * read-only view of the mapped file, no data is copied.
+	 * 
+	 * @param url String image url
+	 * @return ByteBuffer with image bytes or null, if image is not in the bundle
+	 */
+	public ByteBuffer getBytes(String url)
+	{
+		Entry entry = entries.get(AssetPacker.normalise(url));
+		if(entry == null) {
+			return null;
+		}
+		ByteBuffer bytes = data.asReadOnlyBuffer();
+		bytes.position(entry.offset);
+		bytes.limit(entry.offset + entry.length);
+		return bytes.slice();
+	}
+	
+	
+	/**
+	 * Gets position of the image in the bundle file,
+	 * so it can be read from the file directly
+	 * 
+	 * @param url String image url
+	 * @return long position of the first byte or -1, if image is not in the bundle
+	 */
+	public long getOffset(String url)
+	{
+		Entry entry = entries.get(AssetPacker.normalise(url));
+		return entry == null ? -1 : entry.offset;
+	}
+	
+	
+	/**
+	 * Gets number of bytes of the image
+	 * 
+	 * @param url String image url
+	 * @return int length or -1, if image is not in the bundle
+	 */
+	public int getLength(String url)
+	{
+		Entry entry = entries.get(AssetPacker.normalise(url));
+		return entry == null ? -1 : entry.length;
+	}
+	
+	
+	/**
+	 * Gets path of the bundle file
+	 * 
+	 * @return Path
+	 */
+	public Path getFile()
+	{
+		return file;
+	}
+	
+	
+	/**
+	 * Opens stream reading the image directly 
+	 * from the mapped file
+	 * 
+	 * @param url String image url
+	 * @return InputStream or null, if image is not in the bundle
+	 */
+	public InputStream open(String url)
+	{
+		ByteBuffer bytes = getBytes(url);
+		if(bytes == null) {
+			return null;
+		}
+		return new BufferInputStream(bytes);
+	}
+	
+	
+	/**
+	 * Opens stream reading the preview of the 
+	 * image created by AssetPacker
+	 * 
+	 * @param url String image url
+	 * @return InputStream or null, if there is no preview in the bundle
+	 */
+	public InputStream openPreview(String url)
+	{
+		return open(url + AssetPacker.PREVIEW_SUFFIX);
+	}
+	
+	
+	/**
+	 * Gets names of the images in the bundle
+	 * 
+	 * @return Set of String normalised names
+	 */
+	public Set<String> getNames()
+	{
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+	
+	
+	/**
+	 * Position of an image in the bundle
+	 */
+	private static class Entry {
+		
+		private final int offset; // position of the first byte
+		private final int length; // number of bytes
+		
+		private Entry(int offset, int length)
+		{
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+	
+	
+	/**
+	 * InputStream reading from a ByteBuffer
+	 */
+	private static class BufferInputStream extends InputStream {
+		
+		private final ByteBuffer bytes; // bytes left to be read
+		
+		private BufferInputStream(ByteBuffer bytes)
+		{
+			this.bytes = bytes;
+		}
+		
+		@Override
+		public int read()
+		{
+			return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+		}
+		
+		@Override
+		public int read(byte[] buffer, int offset, int length)
+		{
+			if(length == 0) {
+				return 0;
+			}
+			if(!bytes.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(length, bytes.remaining());
+			bytes.get(buffer, offset, count);
+			return count;
+		}
+		
+		@Override
+		public long skip(long count)
+		{
+			int skipped = (int) Math.max(0, Math.min(count, bytes.remaining()));
+			bytes.position(bytes.position() + skipped);
+			return skipped;
+		}
+		
+		@Override
+		public int available()
+		{
+			return bytes.remaining();
+		}
+	}
+
+}
@@ -0,0 +1,211 @@
+package image;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Offline tool packing the images of an asset directory (such as tools/) into a single bundle file
+ * which is read at runtime by AssetBundle. 
+ * 
+ * Bundle starts with a header: magic number, format version and number of entries, followed by
+ * an index with name, offset and length of every entry. Image bytes are stored after the index 
+ * in the order of the entries. Names are stored in lower case, because image urls used by the model 
+ * do not always match the case of the file names. Only image files at the top level of the directory
+ * are packed. Every image is followed by a small preview stored under its name with PREVIEW_SUFFIX.
+ * 
+ * Usage: java image.AssetPacker assetDirectory bundleFile
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class AssetPacker {
+	
+	static final int MAGIC = 0x33445056; // "3DPV"
+	static final int VERSION = 1; // version of the bundle format
+	public static final String PREVIEW_SUFFIX = "#preview"; // added to the name of the image preview
+	private static final String[] EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp"}; // packed files
+	
+	
+	/**
+	 * Packs asset directory into a bundle file
+	 * 
+	 * @param args asset directory and bundle file
+	 */
+	public static void main(String[] args)
+	{
+		if(args.length != 2) {
+			System.out.println("Usage: java image.AssetPacker assetDirectory bundleFile");
+			System.exit(1);
+		}
+		try {
+			int count = pack(Paths.get(args[0]), Paths.get(args[1]));
+			System.out.println("Packed " + count + " images into " + args[1]);
+		}
+		catch(IOException e) {
+			System.out.println(e);
+			System.exit(1);
+		}
+	}
+	
+	
+	/**
+	 * Packs image files of the directory and their previews into a bundle
+	 * 
+	 * @param directory Path of the asset directory
+	 * @param bundle Path of the bundle file to be written
+	 * @return int number of packed images
+	 * @throws IOException if directory cannot be read or bundle cannot be written
+	 * @throws IllegalArgumentException if two files have the same name ignoring case
+	 */
+	public static int pack(Path directory, Path bundle) throws IOException
+	{
+		ArrayList<Path> files = new ArrayList<Path>();
+		try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for(Path file: stream) {
+				if(Files.isRegularFile(file) && isImage(file)) {
+					files.add(file);
+				}
+			}
+		}
+		Collections.sort(files);
+		
+		//Collects images and their previews, so size of the index is known before data is written
+		ArrayList<Asset> assets = new ArrayList<Asset>();
+		HashSet<String> names = new HashSet<String>();
+		for(Path file: files) {
+			String name = normalise(file.getFileName().toString());
+			if(!names.add(name)) {
+				throw new IllegalArgumentException("Duplicate asset name " + file.getFileName());
+			}
+			long length = Files.size(file);
+			if(length > Integer.MAX_VALUE) {
+				throw new IOException("Asset is too large " + file);
+			}
+			assets.add(new Asset(name, file, null, (int) length));
+			byte[] preview = createPreview(file);
+			if(preview != null) {
+				assets.add(new Asset(name + PREVIEW_SUFFIX, null, preview, preview.length));
+			}
+		}
+		long offset = 12; // magic, version and number of entries
+		for(Asset asset: assets) {
+			offset += 2 + asset.name.length + 8 + 4; // name, offset and length of the entry
+		}
+		
+		try(OutputStream file = Files.newOutputStream(bundle);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(assets.size());
+			for(Asset asset: assets) {
+				out.writeShort(asset.name.length);
+				out.write(asset.name);
+				out.writeLong(offset);
+				out.writeInt(asset.length);
+				offset += asset.length;
+			}
+			for(Asset asset: assets) {
+				if(asset.file != null) {
+					Files.copy(asset.file, out);
+				}
+				else {
+					out.write(asset.data);
+				}
+			}
+		}
+		return files.size();
+	}
+	
+	
+	/**
+	 * Creates a preview PREVIEW_SCALE times smaller than the image,
+	 * encoded as JPEG or as PNG for images with transparency
+	 * 
+	 * @param file Path of the image
+	 * @return byte[] encoded preview or null, if image cannot be decoded
+	 * @throws IOException if image cannot be read
+	 */
+	private static byte[] createPreview(Path file) throws IOException
+	{
+		BufferedImage image;
+		try(InputStream in = Files.newInputStream(file)) {
+			image = ImageIO.read(in);
+		}
+		if(image == null) {
+			return null;
+		}
+		BufferedImage preview = PreviewDecoder.scale(image, image.getWidth() / PreviewDecoder.PREVIEW_SCALE,
+				image.getHeight() / PreviewDecoder.PREVIEW_SCALE);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ImageIO.write(preview, preview.getColorModel().hasAlpha() ? "png" : "jpg", bytes);
+		return bytes.toByteArray();
+	}
+	
+	
+	/**
+	 * Normalises name of an asset, so it can be 
+	 * found regardless of case
+	 * 
+	 * @param name String file name or image url
+	 * @return String normalised name
+	 */
+	static String normalise(String name)
+	{
+		return name.toLowerCase(Locale.ROOT);
+	}
+	
+	
+	/**
+	 * Checks if file is an image
+	 * 
+	 * @param file Path of the file
+	 * @return true if file has an image extension
+	 */
+	private static boolean isImage(Path file)
+	{
+		String name = normalise(file.getFileName().toString());
+		for(String extension: EXTENSIONS) {
+			if(name.endsWith(extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Image or preview to be packed
+	 */
+	private static class Asset {
+		
+		private final byte[] name; // UTF-8 encoded normalised name
+		private final Path file; // file with the bytes or null
+		private final byte[] data; // bytes, if there is no file
+		private final int length; // number of bytes
+		
+		private Asset(String name, Path file, byte[] data, int length)
+		{
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.file = file;
+			this.data = data;
+			this.length = length;
+		}
+	}
+
+}
@@ -0,0 +1,495 @@
+package image;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server of the location views and item images, so browser clients on the LAN see the
+ * same images as the viewer. Images are served at /assets/ followed by their url used by the model,
+ * ignoring case, from an AssetBundle or from the image files at the top level of an asset directory.
+ *
+ * Every response has a strong ETag made of the size and modification time of the file and the
+ * position of the image in it, so conditional requests (If-None-Match) are answered by 304 without
+ * reading the image. A single byte range (Range, If-Range) is answered by 206. Image bytes are sent
+ * by FileChannel.transferTo from a channel kept open for every file, so they are not read into the
+ * heap. GET and HEAD are supported.
+ *
+ * Requests are handled on virtual threads, one per request, when the JDK has them (Java 21 and
+ * later), otherwise on a fixed pool of platform threads.
+ *
+ * Without TCP_NODELAY every keep-alive response waits for the delayed ACK of the client, about 40 ms.
+ * The JDK server enables it only if NODELAY_PROPERTY is true when the first HttpServer of the JVM is
+ * created, which affects every HttpServer of the JVM, so the server does not set it itself. main()
+ * sets it, an application starting the server sets it in its own main or on the command line.
+ *
+ * Usage: java image.AssetServer bundleFile|assetDirectory [port]
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class AssetServer {
+
+	public static final String PATH = "/assets/"; // path images are served at
+	public static final int DEFAULT_PORT = 8086; // port used if none is given
+	private static final int POOL_SIZE = 64; // platform threads used without virtual threads
+	private static final String CACHE_CONTROL = "public, max-age=3600"; // images change only with the files
+	public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay"; // enables TCP_NODELAY of the JDK server
+
+	private final HttpServer server; // JDK HTTP server
+	private final ExecutorService executor; // threads handling the requests
+	private final AssetBundle bundle; // bundle of the images or null
+	private final ConcurrentHashMap<String, Asset> assets; // served images by normalised name
+	private final ConcurrentHashMap<Path, FileChannel> channels; // open files by path
+	private final LongAdder requests; // number of handled requests
+
+
+	/**
+	 * Constructor for the AssetServer
+	 *
+	 * @param bundle AssetBundle of the images or null, if images of a directory are served
+	 * @param port int port to listen on, 0 for any free port
+	 * @throws IOException if server cannot be created
+	 */
+	private AssetServer(AssetBundle bundle, int port) throws IOException
+	{
+		this.bundle = bundle;
+		assets = new ConcurrentHashMap<String, Asset>();
+		channels = new ConcurrentHashMap<Path, FileChannel>();
+		requests = new LongAdder();
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		executor = createExecutor();
+		server.setExecutor(executor);
+		server.createContext(PATH, this::handle);
+	}
+
+
+	/**
+	 * Starts server of the images of an AssetBundle
+	 *
+	 * @param bundle AssetBundle
+	 * @param port int port to listen on, 0 for any free port
+	 * @return AssetServer
+	 * @throws IOException if server cannot be started
+	 */
+	public static AssetServer start(AssetBundle bundle, int port) throws IOException
+	{
+		AssetServer server = new AssetServer(bundle, port);
+		server.server.start();
+		return server;
+	}
+
+
+	/**
+	 * Starts server of the images of a directory
+	 *
+	 * @param directory Path of the directory
+	 * @param port int port to listen on, 0 for any free port
+	 * @return AssetServer
+	 * @throws IOException if server cannot be started or directory cannot be read
+	 */
+	public static AssetServer start(Path directory, int port) throws IOException
+	{
+		if(!Files.isDirectory(directory)) {
+			throw new IOException("Not a directory " + directory);
+		}
+		AssetServer server = new AssetServer(null, port);
+		try(DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for(Path file: files) {
+				if(Files.isRegularFile(file)) {
+					String name = AssetPacker.normalise(file.getFileName().toString());
+					server.assets.put(name, server.createAsset(name, file, 0, Files.size(file)));
+				}
+			}
+		}
+		catch(IOException e) {
+			server.stop();
+			throw e;
+		}
+		//Images are indexed before the first request
+		server.server.start();
+		return server;
+	}
+
+
+	/**
+	 * Creates executor running every request on a new
+	 * virtual thread, or on a fixed pool of platform
+	 * threads if the JDK has no virtual threads
+	 *
+	 * @return ExecutorService
+	 */
+	private static ExecutorService createExecutor()
+	{
+		try {
+			//Looked up by reflection, so the server also runs on older JDKs
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(POOL_SIZE);
+		}
+	}
+
+
+	/**
+	 * Gets port the server listens on
+	 *
+	 * @return int port
+	 */
+	public int getPort()
+	{
+		return server.getAddress().getPort();
+	}
+
+
+	/**
+	 * Gets number of requests handled
+	 * since the server was started
+	 *
+	 * @return long number of requests
+	 */
+	public long getRequestCount()
+	{
+		return requests.sum();
+	}
+
+
+	/**
+	 * Stops the server and closes the files
+	 */
+	public void stop()
+	{
+		server.stop(0);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.SECONDS);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for(FileChannel channel: channels.values()) {
+			try {
+				channel.close();
+			}
+			catch(IOException e) {
+				//Files are only read
+			}
+		}
+		channels.clear();
+	}
+
+
+	/**
+	 * Handles request of an image
+	 *
+	 * @param exchange HttpExchange of the request
+	 * @throws IOException if response cannot be sent
+	 */
+	private void handle(HttpExchange exchange) throws IOException
+	{
+		requests.increment();
+		try {
+			// the request body is drained first, else responses without a body close the connection
+			exchange.getRequestBody().close();
+			String method = exchange.getRequestMethod();
+			boolean head = method.equals("HEAD");
+			if(!head && !method.equals("GET")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			Asset asset = findAsset(exchange.getRequestURI().getPath().substring(PATH.length()));
+			if(asset == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			Headers request = exchange.getRequestHeaders();
+			Headers response = exchange.getResponseHeaders();
+			response.set("ETag", asset.etag);
+			response.set("Cache-Control", CACHE_CONTROL);
+			response.set("Accept-Ranges", "bytes");
+			if(matches(request.getFirst("If-None-Match"), asset.etag)) {
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			response.set("Content-Type", asset.contentType);
+			long start = 0;
+			long length = asset.length;
+			int status = 200;
+			String range = request.getFirst("Range");
+			String ifRange = request.getFirst("If-Range");
+			//Range of an image which changed is ignored
+			if(range != null && (ifRange == null || ifRange.equals(asset.etag))) {
+				long[] bounds = parseRange(range, asset.length);
+				if(bounds == null) {
+					response.set("Content-Range", "bytes */" + asset.length);
+					exchange.sendResponseHeaders(416, -1);
+					return;
+				}
+				if(bounds.length == 2) {
+					start = bounds[0];
+					length = bounds[1] - bounds[0] + 1;
+					status = 206;
+					response.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + asset.length);
+				}
+			}
+			if(head || length == 0) {
+				response.set("Content-Length", Long.toString(length));
+				exchange.sendResponseHeaders(status, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(status, length);
+			try(OutputStream body = exchange.getResponseBody()) {
+				transfer(asset, start, length, Channels.newChannel(body));
+			}
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+
+	/**
+	 * Finds image by name, creating its
+	 * asset from the bundle when first needed
+	 *
+	 * @param name String image url
+	 * @return Asset or null, if there is no such image
+	 * @throws IOException if bundle cannot be read
+	 */
+	private Asset findAsset(String name) throws IOException
+	{
+		String key = AssetPacker.normalise(name);
+		Asset asset = assets.get(key);
+		if(asset == null && bundle != null) {
+			long offset = bundle.getOffset(key);
+			if(offset < 0) {
+				return null;
+			}
+			asset = createAsset(key, bundle.getFile(), offset, bundle.getLength(key));
+			assets.putIfAbsent(key, asset);
+		}
+		return asset;
+	}
+
+
+	/**
+	 * Creates asset of an image stored in a file
+	 *
+	 * @param name String normalised name of the image
+	 * @param file Path of the file
+	 * @param offset long position of the image in the file
+	 * @param length long number of bytes of the image
+	 * @return Asset
+	 * @throws IOException if file cannot be read
+	 */
+	private Asset createAsset(String name, Path file, long offset, long length) throws IOException
+	{
+		long modified = Files.getLastModifiedTime(file).toMillis();
+		String etag = "\"" + Long.toHexString(Files.size(file)) + "-" + Long.toHexString(modified)
+				+ "-" + Long.toHexString(offset) + "\"";
+		return new Asset(file, offset, length, etag, contentType(name));
+	}
+
+
+	/**
+	 * Sends bytes of the image from the file
+	 *
+	 * @param asset Asset of the image
+	 * @param start long position of the first byte in the image
+	 * @param length long number of bytes to be sent
+	 * @param target WritableByteChannel of the response body
+	 * @throws IOException if file cannot be read or response cannot be sent
+	 */
+	private void transfer(Asset asset, long start, long length, WritableByteChannel target) throws IOException
+	{
+		FileChannel channel = channels.get(asset.file);
+		if(channel == null) {
+			FileChannel opened = FileChannel.open(asset.file, StandardOpenOption.READ);
+			channel = channels.putIfAbsent(asset.file, opened);
+			if(channel == null) {
+				channel = opened;
+			}
+			else {
+				opened.close();
+			}
+		}
+		//Positional transfers do not change the channel, so it is shared by all requests
+		long position = asset.offset + start;
+		long end = position + length;
+		while(position < end) {
+			long sent = channel.transferTo(position, end - position, target);
+			if(sent <= 0) {
+				throw new IOException("Image is shorter than expected " + asset.file);
+			}
+			position += sent;
+		}
+	}
+
+
+	/**
+	 * Checks if If-None-Match header matches the ETag
+	 *
+	 * @param header String value of the header or null
+	 * @param etag String ETag of the image
+	 * @return true if header matches
+	 */
+	static boolean matches(String header, String etag)
+	{
+		if(header == null) {
+			return false;
+		}
+		for(String tag: header.split(",")) {
+			tag = tag.trim();
+			if(tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if(tag.equals("*") || tag.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Parses Range header of a single byte range
+	 *
+	 * @param header String value of the header
+	 * @param size long number of bytes of the image
+	 * @return long[] first and last byte, empty array if range is ignored, or null if it cannot be satisfied
+	 */
+	static long[] parseRange(String header, long size)
+	{
+		//Other units and several ranges are answered by the whole image
+		if(!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+			return new long[0];
+		}
+		String range = header.substring(6).trim();
+		int dash = range.indexOf('-');
+		if(dash < 0) {
+			return new long[0];
+		}
+		try {
+			String first = range.substring(0, dash).trim();
+			String last = range.substring(dash + 1).trim();
+			long start;
+			long end;
+			if(first.isEmpty()) {
+				//Suffix range of the last bytes
+				long suffix = Long.parseLong(last);
+				if(suffix <= 0) {
+					return null;
+				}
+				start = Math.max(0, size - suffix);
+				end = size - 1;
+			}
+			else {
+				start = Long.parseLong(first);
+				end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+			}
+			if(start < 0 || start >= size || end < start) {
+				return null;
+			}
+			return new long[] {start, end};
+		}
+		catch(NumberFormatException e) {
+			return new long[0];
+		}
+	}
+
+
+	/**
+	 * Gets content type of an image by its extension
+	 *
+	 * @param name String name of the image
+	 * @return String content type
+	 */
+	private static String contentType(String name)
+	{
+		String lower = name.toLowerCase(Locale.ROOT);
+		if(lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+			return "image/jpeg";
+		}
+		if(lower.endsWith(".png")) {
+			return "image/png";
+		}
+		if(lower.endsWith(".gif")) {
+			return "image/gif";
+		}
+		if(lower.endsWith(".bmp")) {
+			return "image/bmp";
+		}
+		return "application/octet-stream";
+	}
+
+
+	/**
+	 * Starts server of a bundle or
+	 * directory until it is killed
+	 *
+	 * @param args bundle file or asset directory and port
+	 */
+	public static void main(String[] args)
+	{
+		if(args.length < 1) {
+			System.out.println("Usage: java image.AssetServer bundleFile|assetDirectory [port]");
+			System.exit(1);
+		}
+		if(System.getProperty(NODELAY_PROPERTY) == null) {
+			System.setProperty(NODELAY_PROPERTY, "true");
+		}
+		try {
+			Path source = Paths.get(args[0]);
+			int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+			AssetServer server = Files.isDirectory(source) ? start(source, port)
+					: start(AssetBundle.open(source), port);
+			System.out.println("Serving " + source + " at http://localhost:" + server.getPort() + PATH);
+		}
+		catch(IOException | NumberFormatException e) {
+			System.out.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+
+	/**
+	 * Image served from a file
+	 */
+	private static class Asset {
+
+		private final Path file; // file holding the image
+		private final long offset; // position of the image in the file
+		private final long length; // number of bytes of the image
+		private final String etag; // strong ETag of the image
+		private final String contentType; // content type of the image
+
+		private Asset(Path file, long offset, long length, String etag, String contentType)
+		{
+			this.file = file;
+			this.offset = offset;
+			this.length = length;
+			this.etag = etag;
+			this.contentType = contentType;
+		}
+	}
+
+}
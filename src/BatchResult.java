@@ -0,0 +1,93 @@
+package model;
+
+/**
+ * Result of a CommandBatch executed by World: the view displayed after the batch and a trace of
+ * every command, holding the view displayed after the command and whether it succeeded. Turns
+ * always succeed, moving forward succeeds if there was a neighbour, picking and putting succeed if
+ * the item was moved.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class BatchResult {
+
+	private final String[] views; // url of the view after every command
+	private final boolean[] succeeded; // whether every command succeeded
+	private final int succeededCount; // number of commands which succeeded
+	private final String finalView; // url of the view after the batch
+
+
+	/**
+	 * Constructor for the BatchResult
+	 *
+	 * @param views String[] url of the view after every command
+	 * @param succeeded boolean[] whether every command succeeded
+	 * @param succeededCount int number of commands which succeeded
+	 * @param finalView String url of the view after the batch
+	 */
+	BatchResult(String[] views, boolean[] succeeded, int succeededCount, String finalView)
+	{
+		this.views = views;
+		this.succeeded = succeeded;
+		this.succeededCount = succeededCount;
+		this.finalView = finalView;
+	}
+
+
+	/**
+	 * Gets view displayed after the batch
+	 *
+	 * @return String url of the image
+	 */
+	public String getFinalView()
+	{
+		return finalView;
+	}
+
+
+	/**
+	 * Gets number of commands in the trace
+	 *
+	 * @return int number of commands
+	 */
+	public int size()
+	{
+		return views.length;
+	}
+
+
+	/**
+	 * Gets view displayed after a command
+	 *
+	 * @param index int index of the command
+	 * @return String url of the image
+	 */
+	public String getView(int index)
+	{
+		return views[index];
+	}
+
+
+	/**
+	 * Checks if a command succeeded
+	 *
+	 * @param index int index of the command
+	 * @return true if command succeeded
+	 */
+	public boolean isSucceeded(int index)
+	{
+		return succeeded[index];
+	}
+
+
+	/**
+	 * Gets number of commands which succeeded
+	 *
+	 * @return int number of commands
+	 */
+	public int getSucceededCount()
+	{
+		return succeededCount;
+	}
+
+}
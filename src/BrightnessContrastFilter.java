@@ -0,0 +1,63 @@
+package image;
+
+/**
+ * Filter adjusting brightness and contrast of the pixels. Brightness from -1 to 1 is added to
+ * every colour channel, contrast from 0 stretches channels around the middle grey (1 keeps 
+ * contrast unchanged). The adjustment is computed once into a lookup table of 256 values.
+ * Alpha is preserved.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class BrightnessContrastFilter implements PixelFilter {
+	
+	private final double brightness; // value added to channels from -1 to 1
+	private final double contrast; // factor stretching channels around middle grey
+	private final int[] table; // adjusted value of every channel value
+	
+	
+	/**
+	 * Constructor for the BrightnessContrastFilter
+	 * 
+	 * @param brightness double from -1 to 1, 0 keeps brightness unchanged
+	 * @param contrast double from 0, 1 keeps contrast unchanged
+	 * @throws IllegalArgumentException if brightness or contrast is out of range
+	 */
+	public BrightnessContrastFilter(double brightness, double contrast)
+	{
+		if(brightness < -1 || brightness > 1) {
+			throw new IllegalArgumentException("Brightness must be between -1 and 1");
+		}
+		if(contrast < 0) {
+			throw new IllegalArgumentException("Contrast is negative");
+		}
+		this.brightness = brightness;
+		this.contrast = contrast;
+		table = new int[256];
+		for(int value = 0; value < 256; value++) {
+			double adjusted = (value - 127.5) * contrast + 127.5 + brightness * 255;
+			table[value] = (int) Math.max(0, Math.min(255, Math.round(adjusted)));
+		}
+	}
+	
+	
+	@Override
+	public void filterRows(int[] pixels, int offset, int width, int height, int fromRow, int toRow)
+	{
+		int[] table = this.table;
+		int end = offset + toRow * width;
+		for(int i = offset + fromRow * width; i < end; i++) {
+			int argb = pixels[i];
+			pixels[i] = (argb & 0xFF000000) | (table[(argb >> 16) & 0xFF] << 16)
+					| (table[(argb >> 8) & 0xFF] << 8) | table[argb & 0xFF];
+		}
+	}
+	
+	
+	@Override
+	public String getName()
+	{
+		return "brightnessContrast:" + brightness + ":" + contrast;
+	}
+
+}
@@ -0,0 +1,216 @@
+package image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Least recently used cache whose capacity is expressed in bytes rather than in number of entries.
+ * Size of every value is measured by a weigher when it is added. When total size exceeds the budget,
+ * least recently used entries are evicted until the cache fits again. A value larger than the whole 
+ * budget is never cached.
+ * 
+ * The cache keeps count of hits, misses and evictions. All methods are thread safe.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the cached values
+ */
+public class ByteBudgetCache<K, V> {
+	
+	private final long capacity; // maximum number of bytes held by the cache
+	private final ToLongFunction<V> weigher; // measures size of a value in bytes
+	private final LinkedHashMap<K, Entry<V>> entries; // entries in access order, eldest first
+	private long size; // number of bytes currently held
+	private long hits; // number of successful lookups
+	private long misses; // number of unsuccessful lookups
+	private long evictions; // number of entries evicted to fit the budget
+	
+	
+	/**
+	 * Constructor for the ByteBudgetCache
+	 * 
+	 * @param capacity long maximum number of bytes to be held
+	 * @param weigher function returning size of a value in bytes
+	 * @throws IllegalArgumentException if capacity is negative
+	 */
+	public ByteBudgetCache(long capacity, ToLongFunction<V> weigher)
+	{
+		if(capacity < 0) {
+			throw new IllegalArgumentException("Cache capacity is negative");
+		}
+		this.capacity = capacity;
+		this.weigher = weigher;
+		entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true);
+	}
+	
+	
+	/**
+	 * Gets cached value and marks it 
+	 * as most recently used
+	 * 
+	 * @param key K key of the value
+	 * @return V cached value or null, if not cached
+	 */
+	public synchronized V get(K key)
+	{
+		Entry<V> entry = entries.get(key);
+		if(entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+	
+	
+	/**
+	 * Adds value to the cache, evicting least
+	 * recently used values if budget is exceeded
+	 * 
+	 * @param key K key of the value
+	 * @param value V value to be cached
+	 */
+	public synchronized void put(K key, V value)
+	{
+		long weight = weigher.applyAsLong(value);
+		Entry<V> previous = entries.remove(key);
+		if(previous != null) {
+			size -= previous.weight;
+		}
+		//Value which does not fit at all would evict everything else
+		if(weight > capacity) {
+			return;
+		}
+		entries.put(key, new Entry<V>(value, weight));
+		size += weight;
+		evict();
+	}
+	
+	
+	/**
+	 * Removes value from the cache
+	 * 
+	 * @param key K key of the value
+	 */
+	public synchronized void remove(K key)
+	{
+		Entry<V> entry = entries.remove(key);
+		if(entry != null) {
+			size -= entry.weight;
+		}
+	}
+	
+	
+	/**
+	 * Removes all values from the cache
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+		size = 0;
+	}
+	
+	
+	/**
+	 * Evicts least recently used entries 
+	 * until the cache fits the budget
+	 */
+	private void evict()
+	{
+		Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+		while(size > capacity && it.hasNext()) {
+			Entry<V> eldest = it.next().getValue();
+			it.remove();
+			size -= eldest.weight;
+			evictions++;
+		}
+	}
+	
+	
+	/**
+	 * Gets number of bytes held by the cache
+	 * 
+	 * @return long size in bytes
+	 */
+	public synchronized long getSize()
+	{
+		return size;
+	}
+	
+	
+	/**
+	 * Gets maximum number of bytes held by the cache
+	 * 
+	 * @return long capacity in bytes
+	 */
+	public long getCapacity()
+	{
+		return capacity;
+	}
+	
+	
+	/**
+	 * Gets number of cached values
+	 * 
+	 * @return int number of entries
+	 */
+	public synchronized int getEntryCount()
+	{
+		return entries.size();
+	}
+	
+	
+	/**
+	 * Gets number of successful lookups
+	 * 
+	 * @return long number of hits
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+	
+	
+	/**
+	 * Gets number of unsuccessful lookups
+	 * 
+	 * @return long number of misses
+	 */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+	
+	
+	/**
+	 * Gets number of entries evicted
+	 * to fit the budget
+	 * 
+	 * @return long number of evictions
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+	
+	
+	/**
+	 * Cached value together with its size
+	 */
+	private static class Entry<V> {
+		
+		private final V value; // cached value
+		private final long weight; // size of the value in bytes
+		
+		private Entry(V value, long weight)
+		{
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+}
@@ -0,0 +1,207 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+
+/**
+ * Batch of commands executed by World in one pass, see World.execute. A batch is written as a
+ * compact string of commands: L (turn left), R (turn right), F (move forward), PICK(name) and
+ * PUT(name), optionally separated by whitespace, commas or semicolons, for example
+ * "F PICK(Sarbievijus) RF PUT(Sarbievijus)". Steps of a Route are a valid batch.
+ *
+ * A batch is parsed once into arrays of operations and names, so it can be executed any number
+ * of times without parsing or allocating per command.
+ *
+ * Usage: java model.CommandBatch worldFile scriptFile [repeats]
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class CommandBatch {
+
+	static final byte LEFT = SessionJournal.LEFT; // turn left
+	static final byte RIGHT = SessionJournal.RIGHT; // turn right
+	static final byte FORWARD = SessionJournal.FORWARD; // move forward
+	static final byte PICK = SessionJournal.PICK; // pick item by name
+	static final byte PUT = SessionJournal.PUT; // put item by name
+
+	private final byte[] operations; // operation of every command
+	private final String[] names; // item name of every command, null for turns and moves
+
+
+	/**
+	 * Constructor for the CommandBatch
+	 *
+	 * @param operations byte[] operation of every command
+	 * @param names String[] item name of every command
+	 */
+	private CommandBatch(byte[] operations, String[] names)
+	{
+		this.operations = operations;
+		this.names = names;
+	}
+
+
+	/**
+	 * Parses batch of commands
+	 *
+	 * @param commands String of commands such as "LFF PICK(Basket) RF"
+	 * @return CommandBatch
+	 * @throws IllegalArgumentException if a command is invalid
+	 */
+	public static CommandBatch parse(String commands)
+	{
+		byte[] operations = new byte[commands.length()];
+		String[] names = new String[commands.length()];
+		int count = 0;
+		int i = 0;
+		while(i < commands.length()) {
+			char c = commands.charAt(i);
+			if(Character.isWhitespace(c) || c == ',' || c == ';') {
+				i++;
+				continue;
+			}
+			if(c == 'L' || c == 'R' || c == 'F') {
+				operations[count++] = c == 'L' ? LEFT : c == 'R' ? RIGHT : FORWARD;
+				i++;
+				continue;
+			}
+			byte operation;
+			if(commands.startsWith("PICK(", i)) {
+				operation = PICK;
+				i += 5;
+			}
+			else if(commands.startsWith("PUT(", i)) {
+				operation = PUT;
+				i += 4;
+			}
+			else {
+				throw new IllegalArgumentException("Invalid command at " + i + ": " + c);
+			}
+			int end = commands.indexOf(')', i);
+			if(end <= i) {
+				throw new IllegalArgumentException("Missing item name at " + i);
+			}
+			operations[count] = operation;
+			names[count++] = commands.substring(i, end);
+			i = end + 1;
+		}
+		return new CommandBatch(Arrays.copyOf(operations, count), Arrays.copyOf(names, count));
+	}
+
+
+	/**
+	 * Gets number of commands
+	 *
+	 * @return int number of commands
+	 */
+	public int size()
+	{
+		return operations.length;
+	}
+
+
+	/**
+	 * Gets operation of a command
+	 *
+	 * @param index int index of the command
+	 * @return byte operation such as LEFT or PICK
+	 */
+	byte getOperation(int index)
+	{
+		return operations[index];
+	}
+
+
+	/**
+	 * Gets item name of a command
+	 *
+	 * @param index int index of the command
+	 * @return String name or null, if command is a turn or a move
+	 */
+	String getName(int index)
+	{
+		return names[index];
+	}
+
+
+	/**
+	 * Gets compact string of the commands
+	 *
+	 * @return String which is parsed to the same batch
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(operations.length);
+		for(int i = 0; i < operations.length; i++) {
+			switch(operations[i]) {
+			    case LEFT:
+			    	builder.append('L');
+			    	break;
+			    case RIGHT:
+			    	builder.append('R');
+			    	break;
+			    case FORWARD:
+			    	builder.append('F');
+			    	break;
+			    case PICK:
+			    	builder.append(" PICK(").append(names[i]).append(") ");
+			    	break;
+			    default:
+			    	builder.append(" PUT(").append(names[i]).append(") ");
+			}
+		}
+		return builder.toString().trim();
+	}
+
+
+	/**
+	 * Runs a tour script on a World and prints
+	 * the final view and commands per second
+	 *
+	 * @param args String[] world file or graph file, script file and number of repeats
+	 */
+	public static void main(String[] args)
+	{
+		if(args.length < 2) {
+			System.err.println("Usage: java model.CommandBatch worldFile scriptFile [repeats]");
+			System.exit(1);
+		}
+		try {
+			World world;
+			Path path = Paths.get(args[0]);
+			if(args[0].endsWith(".wgraph")) {
+				world = new World(MappedWorldGraph.open(path));
+			}
+			else {
+				try(Reader source = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+					world = new World(LocationGraph.of(new World(source)));
+				}
+			}
+			CommandBatch batch = parse(new String(Files.readAllBytes(Paths.get(args[1])), StandardCharsets.UTF_8));
+			int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+			BatchResult result = null;
+			long start = System.nanoTime();
+			for(int r = 0; r < repeats; r++) {
+				result = world.execute(batch);
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println("Final view: " + result.getFinalView());
+			System.out.println("Commands: " + (long) batch.size() * repeats + ", succeeded in last run: "
+					+ result.getSucceededCount() + " of " + result.size());
+			System.out.printf("Commands per second: %.0f%n", batch.size() * (double) repeats / seconds);
+		}
+		catch(IOException | IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter of events, such as views shown or items picked. Counting is
+ * spread over cells by LongAdder, so threads counting at once do not
+ * contend for one variable.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class Counter implements CounterMBean {
+
+	private final String name; // name of the counted event
+	private final LongAdder count; // number of events
+
+
+	/**
+	 * Constructor for the Counter
+	 *
+	 * @param name String name of the counted event
+	 */
+	Counter(String name)
+	{
+		this.name = name;
+		count = new LongAdder();
+	}
+
+
+	/**
+	 * Counts one event
+	 */
+	public void increment()
+	{
+		count.increment();
+	}
+
+
+	/**
+	 * Counts events
+	 *
+	 * @param events long number of events
+	 */
+	public void add(long events)
+	{
+		count.add(events);
+	}
+
+
+	/**
+	 * Gets name of the counted event
+	 *
+	 * @return String name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+
+	@Override
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+
+	@Override
+	public void reset()
+	{
+		count.reset();
+	}
+
+
+	/**
+	 * Gets the count
+	 *
+	 * @return String count
+	 */
+	@Override
+	public String toString()
+	{
+		return Long.toString(getCount());
+	}
+
+}
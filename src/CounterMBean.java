@@ -0,0 +1,26 @@
+package metrics;
+
+/**
+ * Management interface of a Counter, shown
+ * by JMX clients such as JConsole or Mission Control
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface CounterMBean {
+
+
+	/**
+	 * Gets number of counted events
+	 *
+	 * @return long count
+	 */
+	long getCount();
+
+
+	/**
+	 * Sets the count to 0
+	 */
+	void reset();
+
+}
@@ -16,6 +16,11 @@ public enum Direction {
 	
 	NORTH, SOUTH, EAST, WEST; // Constant directions
 	
+	// Rotations by ordinal, looked up instead of switching on every turn
+	private static final Direction[] OPPOSITE = {SOUTH, NORTH, WEST, EAST};
+	private static final Direction[] LEFT = {WEST, EAST, NORTH, SOUTH};
+	private static final Direction[] RIGHT = {EAST, WEST, SOUTH, NORTH};
+	
 	
 	/**
 	 * Gets direction which is opposite
@@ -24,29 +29,8 @@ public enum Direction {
 	 * @return an opposite Direction
 	 */
 	public Direction getOpposite()
-	{   
-		Direction direction = this;
-		Direction oppositeDirection;
-		
-		switch (direction) {
-		
-		    case NORTH:
-		    	oppositeDirection = SOUTH;
-		    	break;
-		    case SOUTH:
-		    	oppositeDirection = NORTH;
-		    	break;
-		    case EAST:
-		    	oppositeDirection = WEST;
-		    	break;
-		    case WEST:
-		    	oppositeDirection = EAST;
-		    	break;
-		    default: oppositeDirection = SOUTH;
-		        break;
-	     }
-		    
-		return oppositeDirection;
+	{
+		return OPPOSITE[ordinal()];
 	}
 	
 	
@@ -58,28 +42,7 @@ public enum Direction {
 	 */
 	public Direction getLeft()
 	{
-		Direction direction = this;
-		Direction leftDirection;
-		
-		switch (direction) {
-		
-		    case NORTH:
-		    	leftDirection = WEST;
-		    	break;
-		    case SOUTH:
-		    	leftDirection = EAST;
-		    	break;
-		    case EAST:
-		    	leftDirection = NORTH;
-		    	break;
-		    case WEST:
-		    	leftDirection = SOUTH;
-		    	break;
-		    default: leftDirection = WEST;
-		        break;
-	     }
-		    
-		return leftDirection;
+		return LEFT[ordinal()];
 	}
 	
 	
@@ -91,28 +54,7 @@ public enum Direction {
 	 */
 	public Direction getRight()
 	{
-		Direction direction = this;
-		Direction rightDirection;
-		
-		switch (direction) {
-		
-		    case NORTH:
-		    	rightDirection = EAST;
-		    	break;
-		    case SOUTH:
-		    	rightDirection = WEST;
-		    	break;
-		    case EAST:
-		    	rightDirection = SOUTH;
-		    	break;
-		    case WEST:
-		    	rightDirection = NORTH;
-		    	break;
-		    default: rightDirection = EAST;
-		        break;
-	     }
-		    
-		return rightDirection;
+		return RIGHT[ordinal()];
 	}
 		    		    	
 		    
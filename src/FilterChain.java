@@ -0,0 +1,94 @@
+package image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Composition of filters applied one after another. The chain is itself a PixelFilter: every band 
+ * of rows is passed through all filters of the chain before the next band is filtered, so the band 
+ * stays in the processor cache. Name of the chain is built from names of its filters, so images 
+ * filtered by equal chains share a cache entry. Empty chain leaves pixels unchanged.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class FilterChain implements PixelFilter {
+	
+	private final List<PixelFilter> filters; // filters in the order they are applied
+	private final String name; // names of the filters
+	
+	
+	/**
+	 * Constructor for the FilterChain
+	 * 
+	 * @param filters PixelFilters in the order they are applied
+	 */
+	public FilterChain(PixelFilter... filters)
+	{
+		this(Arrays.asList(filters));
+	}
+	
+	
+	/**
+	 * Constructor for the FilterChain
+	 * 
+	 * @param filters List of PixelFilters in the order they are applied
+	 */
+	public FilterChain(List<PixelFilter> filters)
+	{
+		this.filters = Collections.unmodifiableList(new ArrayList<PixelFilter>(filters));
+		StringBuilder names = new StringBuilder();
+		for(PixelFilter filter: this.filters) {
+			if(names.length() > 0) {
+				names.append('|');
+			}
+			names.append(filter.getName());
+		}
+		name = names.toString();
+	}
+	
+	
+	/**
+	 * Creates a chain with the filter 
+	 * added to the end of this chain
+	 * 
+	 * @param filter PixelFilter to be applied last
+	 * @return new FilterChain
+	 */
+	public FilterChain then(PixelFilter filter)
+	{
+		ArrayList<PixelFilter> chain = new ArrayList<PixelFilter>(filters);
+		chain.add(filter);
+		return new FilterChain(chain);
+	}
+	
+	
+	@Override
+	public void filterRows(int[] pixels, int offset, int width, int height, int fromRow, int toRow)
+	{
+		for(PixelFilter filter: filters) {
+			filter.filterRows(pixels, offset, width, height, fromRow, toRow);
+		}
+	}
+	
+	
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+	
+	
+	/**
+	 * Gets filters of the chain
+	 * 
+	 * @return unmodifiable List of PixelFilters
+	 */
+	public List<PixelFilter> getFilters()
+	{
+		return filters;
+	}
+
+}
@@ -0,0 +1,36 @@
+package image;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a PixelFilter applied
+ * to an image by FilterPipeline
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@Name("viewer.Filter")
+@Label("Filter")
+@Category({"Viewer", "Image"})
+class FilterEvent extends jdk.jfr.Event {
+
+	@Label("Filter")
+	String filter; // name of the filter
+
+	@Label("Width")
+	int width; // number of pixels in a row
+
+	@Label("Height")
+	int height; // number of rows
+
+	@Label("Pixel Data")
+	@DataAmount
+	long bytes; // bytes of the filtered ARGB pixels
+
+	@Label("Threads")
+	int threads; // parallelism of the fork/join pool
+
+}
@@ -0,0 +1,226 @@
+package image;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies a PixelFilter to a whole image in parallel. Rows of the image are split in halves by
+ * fork/join tasks until a band is not larger than the band size, and bands are filtered on the 
+ * threads of the pool. Pixels can be given as an int array or as an IntBuffer; buffers without 
+ * an accessible array (such as direct buffers) are filtered through a copy of every band.
+ * Every application of a filter is recorded by Flight Recorder as a FilterEvent.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class FilterPipeline {
+	
+	public static final int DEFAULT_BAND_ROWS = 32; // number of rows filtered by one task
+	
+	private final ForkJoinPool pool; // threads filtering the bands
+	private final int bandRows; // maximum number of rows filtered by one task
+	
+	
+	/**
+	 * Constructor for the FilterPipeline
+	 * 
+	 * @param pool ForkJoinPool filtering the bands
+	 * @param bandRows int maximum number of rows filtered by one task
+	 * @throws IllegalArgumentException if band size is not positive
+	 */
+	public FilterPipeline(ForkJoinPool pool, int bandRows)
+	{
+		if(bandRows < 1) {
+			throw new IllegalArgumentException("Band size must be positive");
+		}
+		this.pool = pool;
+		this.bandRows = bandRows;
+	}
+	
+	
+	/**
+	 * Constructor for the FilterPipeline
+	 * using the common pool
+	 */
+	public FilterPipeline()
+	{
+		this(ForkJoinPool.commonPool(), DEFAULT_BAND_ROWS);
+	}
+	
+	
+	/**
+	 * Filters pixels in place
+	 * 
+	 * @param filter PixelFilter to be applied
+	 * @param pixels int[] ARGB pixels, row by row
+	 * @param width int number of pixels in a row
+	 * @param height int number of rows
+	 * @throws IllegalArgumentException if array is smaller than the image
+	 */
+	public void apply(PixelFilter filter, int[] pixels, int width, int height)
+	{
+		apply(filter, pixels, 0, width, height);
+	}
+	
+	
+	/**
+	 * Filters pixels of the buffer in place, from 
+	 * its position to its limit
+	 * 
+	 * @param filter PixelFilter to be applied
+	 * @param pixels IntBuffer of ARGB pixels, row by row
+	 * @param width int number of pixels in a row
+	 * @param height int number of rows
+	 * @throws IllegalArgumentException if buffer is smaller than the image
+	 */
+	public void apply(PixelFilter filter, IntBuffer pixels, int width, int height)
+	{
+		if(pixels.hasArray()) {
+			apply(filter, pixels.array(), pixels.arrayOffset() + pixels.position(), width, height);
+			return;
+		}
+		if(pixels.remaining() < width * height) {
+			throw new IllegalArgumentException("Pixel buffer is smaller than the image");
+		}
+		FilterEvent event = new FilterEvent();
+		event.begin();
+		pool.invoke(new BufferBand(filter, pixels, pixels.position(), width, height, 0, height));
+		commit(event, filter, width, height);
+	}
+	
+	
+	/**
+	 * Filters pixels of the array in place
+	 * 
+	 * @param filter PixelFilter to be applied
+	 * @param pixels int[] ARGB pixels
+	 * @param offset int index of the first pixel of the image
+	 * @param width int number of pixels in a row
+	 * @param height int number of rows
+	 */
+	private void apply(PixelFilter filter, int[] pixels, int offset, int width, int height)
+	{
+		if(width < 0 || height < 0 || pixels.length - offset < (long) width * height) {
+			throw new IllegalArgumentException("Pixel array is smaller than the image");
+		}
+		FilterEvent event = new FilterEvent();
+		event.begin();
+		pool.invoke(new ArrayBand(filter, pixels, offset, width, height, 0, height));
+		commit(event, filter, width, height);
+	}
+	
+	
+	/**
+	 * Commits Flight Recorder event of
+	 * the filter, if it is recorded
+	 * 
+	 * @param event FilterEvent begun before filtering
+	 * @param filter PixelFilter applied
+	 * @param width int number of pixels in a row
+	 * @param height int number of rows
+	 */
+	private void commit(FilterEvent event, PixelFilter filter, int width, int height)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.filter = filter.getName();
+			event.width = width;
+			event.height = height;
+			event.bytes = (long) width * height * 4;
+			event.threads = pool.getParallelism();
+			event.commit();
+		}
+	}
+	
+	
+	/**
+	 * Task filtering rows of an int array
+	 */
+	private class ArrayBand extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final PixelFilter filter; // filter to be applied
+		private final int[] pixels; // pixels of the image
+		private final int offset; // index of the first pixel
+		private final int width; // number of pixels in a row
+		private final int height; // number of rows of the image
+		private final int fromRow; // first row of the band
+		private final int toRow; // row after the last row of the band
+		
+		private ArrayBand(PixelFilter filter, int[] pixels, int offset, int width, int height, int fromRow, int toRow)
+		{
+			this.filter = filter;
+			this.pixels = pixels;
+			this.offset = offset;
+			this.width = width;
+			this.height = height;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(toRow - fromRow <= bandRows) {
+				filter.filterRows(pixels, offset, width, height, fromRow, toRow);
+				return;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			invokeAll(new ArrayBand(filter, pixels, offset, width, height, fromRow, middle),
+					new ArrayBand(filter, pixels, offset, width, height, middle, toRow));
+		}
+	}
+	
+	
+	/**
+	 * Task filtering rows of an IntBuffer 
+	 * through a copy of the band
+	 */
+	private class BufferBand extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final PixelFilter filter; // filter to be applied
+		private final IntBuffer pixels; // pixels of the image
+		private final int offset; // index of the first pixel
+		private final int width; // number of pixels in a row
+		private final int height; // number of rows of the image
+		private final int fromRow; // first row of the band
+		private final int toRow; // row after the last row of the band
+		
+		private BufferBand(PixelFilter filter, IntBuffer pixels, int offset, int width, int height, int fromRow, int toRow)
+		{
+			this.filter = filter;
+			this.pixels = pixels;
+			this.offset = offset;
+			this.width = width;
+			this.height = height;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if(toRow - fromRow <= bandRows) {
+				//Band is copied with its rows at the same index as in the image
+				//minus the rows before it, and filtered as rows fromRow to toRow
+				int start = fromRow * width;
+				int[] band = new int[(toRow - fromRow) * width];
+				IntBuffer source = pixels.duplicate();
+				source.position(offset + start);
+				source.get(band);
+				filter.filterRows(band, -start, width, height, fromRow, toRow);
+				source.position(offset + start);
+				source.put(band);
+				return;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			invokeAll(new BufferBand(filter, pixels, offset, width, height, fromRow, middle),
+					new BufferBand(filter, pixels, offset, width, height, middle, toRow));
+		}
+	}
+
+}
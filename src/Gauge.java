@@ -0,0 +1,78 @@
+package metrics;
+
+import java.util.Locale;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gauge of a current value, such as bytes of decoded images. The
+ * value is not stored, it is read from its source every time the
+ * gauge is read, so the measured code does nothing to keep it.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class Gauge implements GaugeMBean {
+
+	private final String name; // name of the measured value
+	private volatile DoubleSupplier source; // reads the value
+
+
+	/**
+	 * Constructor for the Gauge
+	 *
+	 * @param name String name of the measured value
+	 * @param source DoubleSupplier reading the value
+	 */
+	Gauge(String name, DoubleSupplier source)
+	{
+		this.name = name;
+		this.source = source;
+	}
+
+
+	/**
+	 * Sets source of the value, when the
+	 * measured object is replaced
+	 *
+	 * @param source DoubleSupplier reading the value
+	 */
+	void setSource(DoubleSupplier source)
+	{
+		this.source = source;
+	}
+
+
+	/**
+	 * Gets name of the measured value
+	 *
+	 * @return String name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+
+	@Override
+	public double getValue()
+	{
+		return source.getAsDouble();
+	}
+
+
+	/**
+	 * Gets the value, without fraction if it is whole
+	 *
+	 * @return String value
+	 */
+	@Override
+	public String toString()
+	{
+		double value = getValue();
+		if(value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+			return Long.toString((long) value);
+		}
+		return String.format(Locale.ROOT, "%.4f", value);
+	}
+
+}
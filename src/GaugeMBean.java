@@ -0,0 +1,20 @@
+package metrics;
+
+/**
+ * Management interface of a Gauge, shown
+ * by JMX clients such as JConsole or Mission Control
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface GaugeMBean {
+
+
+	/**
+	 * Gets current value
+	 *
+	 * @return double value
+	 */
+	double getValue();
+
+}
@@ -0,0 +1,32 @@
+package image;
+
+/**
+ * Filter replacing colour of every pixel by its intensity. 
+ * Uses the same intensity weights as SepiaFilter. Alpha is preserved.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class GrayscaleFilter implements PixelFilter {
+	
+	
+	@Override
+	public void filterRows(int[] pixels, int offset, int width, int height, int fromRow, int toRow)
+	{
+		int end = offset + toRow * width;
+		for(int i = offset + fromRow * width; i < end; i++) {
+			int argb = pixels[i];
+			//Intensity weights 0.3, 0.59 and 0.11 scaled by 1024
+			int intensity = (307 * ((argb >> 16) & 0xFF) + 604 * ((argb >> 8) & 0xFF) + 113 * (argb & 0xFF)) >> 10;
+			pixels[i] = (argb & 0xFF000000) | (intensity << 16) | (intensity << 8) | intensity;
+		}
+	}
+	
+	
+	@Override
+	public String getName()
+	{
+		return "grayscale";
+	}
+
+}
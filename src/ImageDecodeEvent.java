@@ -0,0 +1,47 @@
+package image;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of decoding an image or its preview,
+ * lasting from reading the encoded bytes until the pixels are ready
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@Name("viewer.ImageDecode")
+@Label("Image Decode")
+@Category({"Viewer", "Image"})
+@Description("Decoding of a location view or its preview")
+public class ImageDecodeEvent extends jdk.jfr.Event {
+
+	@Label("URL")
+	public String url; // url of the image
+
+	@Label("Preview")
+	public boolean preview; // true if a subsampled preview was decoded
+
+	@Label("Bundled")
+	@Description("True if the image was read from the asset bundle")
+	public boolean bundled; // true if bytes were read from the AssetBundle
+
+	@Label("Encoded Size")
+	@Description("Bytes of the encoded image, -1 if unknown")
+	@DataAmount
+	public long encodedBytes; // size of the file or the bundle entry
+
+	@Label("Width")
+	public int width; // width of the decoded image
+
+	@Label("Height")
+	public int height; // height of the decoded image
+
+	@Label("Decoded Size")
+	@DataAmount
+	public long pixelBytes; // bytes of the decoded pixels
+
+}
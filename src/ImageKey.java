@@ -0,0 +1,244 @@
+package image;
+
+import java.util.Objects;
+
+/**
+ * Key identifying a decoded image: url of the image together with the size it was
+ * requested to be decoded at and name of the filter applied to it. Width and height 0 
+ * mean the original size of the image, empty filter name means unfiltered image.
+ * Images decoded with and without keeping their aspect ratio have different keys.
+ * Key of a low resolution preview of the image differs from the key of the image itself.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public final class ImageKey {
+	
+	private final String url; // image url
+	private final int width; // requested width or 0
+	private final int height; // requested height or 0
+	private final String filter; // name of the applied filter or empty String
+	private final boolean preserveRatio; // true if aspect ratio is kept when decoding at requested size
+	private final boolean preview; // true for a low resolution preview
+	
+	
+	/**
+	 * Constructor for the ImageKey
+	 * 
+	 * @param url String image url
+	 * @param width int requested width, 0 for original width
+	 * @param height int requested height, 0 for original height
+	 * @param filter String name of the applied filter, empty for unfiltered image
+	 * @throws IllegalArgumentException if url is empty or size is negative
+	 */
+	public ImageKey(String url, int width, int height, String filter)
+	{
+		this(url, width, height, filter, false);
+	}
+	
+	
+	/**
+	 * Constructor for the ImageKey
+	 * 
+	 * @param url String image url
+	 * @param width int requested width, 0 for original width
+	 * @param height int requested height, 0 for original height
+	 * @param filter String name of the applied filter, empty for unfiltered image
+	 * @param preserveRatio true if aspect ratio is kept when decoding at requested size
+	 * @throws IllegalArgumentException if url is empty or size is negative
+	 */
+	public ImageKey(String url, int width, int height, String filter, boolean preserveRatio)
+	{
+		this(url, width, height, filter, preserveRatio, false);
+	}
+	
+	
+	/**
+	 * Constructor for the ImageKey
+	 * 
+	 * @param url String image url
+	 * @param width int requested width, 0 for original width
+	 * @param height int requested height, 0 for original height
+	 * @param filter String name of the applied filter, empty for unfiltered image
+	 * @param preserveRatio true if aspect ratio is kept when decoding at requested size
+	 * @param preview true for a low resolution preview
+	 */
+	private ImageKey(String url, int width, int height, String filter, boolean preserveRatio, boolean preview)
+	{
+		if(url == null || url.isEmpty()) {
+			throw new IllegalArgumentException("Image url is empty");
+		}
+		if(width < 0 || height < 0) {
+			throw new IllegalArgumentException("Image size is negative");
+		}
+		this.url = url;
+		this.width = width;
+		this.height = height;
+		this.filter = filter == null ? "" : filter;
+		this.preserveRatio = preserveRatio;
+		this.preview = preview;
+	}
+	
+	
+	/**
+	 * Constructor for the ImageKey
+	 * of an unfiltered image
+	 * 
+	 * @param url String image url
+	 * @param width int requested width, 0 for original width
+	 * @param height int requested height, 0 for original height
+	 */
+	public ImageKey(String url, int width, int height)
+	{
+		this(url, width, height, "");
+	}
+	
+	
+	/**
+	 * Constructor for the ImageKey of an
+	 * image decoded at its original size
+	 * 
+	 * @param url String image url
+	 */
+	public ImageKey(String url)
+	{
+		this(url, 0, 0);
+	}
+	
+	
+	/**
+	 * Gets image url
+	 * 
+	 * @return String url
+	 */
+	public String getUrl()
+	{
+		return url;
+	}
+	
+	
+	/**
+	 * Gets requested width
+	 * 
+	 * @return int width or 0 for original width
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+	
+	
+	/**
+	 * Gets requested height
+	 * 
+	 * @return int height or 0 for original height
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+	
+	
+	/**
+	 * Gets name of the applied filter
+	 * 
+	 * @return String filter name or empty String
+	 */
+	public String getFilter()
+	{
+		return filter;
+	}
+	
+	
+	/**
+	 * Checks if image is filtered
+	 * 
+	 * @return true if a filter is applied
+	 */
+	public boolean isFiltered()
+	{
+		return !filter.isEmpty();
+	}
+	
+	
+	/**
+	 * Checks if aspect ratio is kept
+	 * when decoding at requested size
+	 * 
+	 * @return true if aspect ratio is kept
+	 */
+	public boolean isPreserveRatio()
+	{
+		return preserveRatio;
+	}
+	
+	
+	/**
+	 * Checks if key identifies a preview
+	 * 
+	 * @return true for a low resolution preview
+	 */
+	public boolean isPreview()
+	{
+		return preview;
+	}
+	
+	
+	/**
+	 * Gets key of the same image before filtering
+	 * 
+	 * @return ImageKey of the unfiltered image
+	 */
+	public ImageKey withoutFilter()
+	{
+		return isFiltered() ? new ImageKey(url, width, height, "", preserveRatio, preview) : this;
+	}
+	
+	
+	/**
+	 * Gets key of a preview of this image, which is
+	 * PreviewDecoder.PREVIEW_SCALE times smaller
+	 * 
+	 * @return ImageKey of the preview
+	 */
+	public ImageKey toPreview()
+	{
+		if(preview) {
+			return this;
+		}
+		int previewWidth = width == 0 ? 0 : Math.max(1, width / PreviewDecoder.PREVIEW_SCALE);
+		int previewHeight = height == 0 ? 0 : Math.max(1, height / PreviewDecoder.PREVIEW_SCALE);
+		return new ImageKey(url, previewWidth, previewHeight, filter, preserveRatio, true);
+	}
+	
+	
+	@Override
+	public boolean equals(Object object)
+	{
+		if(this == object) {
+			return true;
+		}
+		if(!(object instanceof ImageKey)) {
+			return false;
+		}
+		ImageKey key = (ImageKey) object;
+		return width == key.width && height == key.height && url.equals(key.url) && filter.equals(key.filter)
+				&& preserveRatio == key.preserveRatio && preview == key.preview;
+	}
+	
+	
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(url, width, height, filter, preserveRatio, preview);
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return url + " " + width + "x" + height + (isFiltered() ? " " + filter : "")
+				+ (preserveRatio ? " keeping ratio" : "") + (preview ? " preview" : "");
+	}
+
+}
@@ -0,0 +1,695 @@
+
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import image.AssetBundle;
+import image.AssetPacker;
+import image.ByteBudgetCache;
+import image.ImageKey;
+import image.FilterPipeline;
+import image.ImageDecodeEvent;
+import image.PixelFilter;
+import image.PreviewDecoder;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+/**
+ * ImageLoader decodes location images on a pool of worker threads, so the JavaFX application
+ * thread is never blocked while a picture is read and decoded. Decoded images are published
+ * back to the ImageView on the application thread.
+ *
+ * Only the most recently requested image is displayed. If the user clicks faster than images
+ * are decoded, results of the requests that were overtaken are dropped.
+ *
+ * Images can be prefetched: the loader keeps a window of images for the current view and the
+ * views reachable from it in one step, so the next navigation is served from memory. The window
+ * is replaced on every prefetch and is accessed on the JavaFX application thread only.
+ *
+ * Decoded images are also kept in a cache limited by number of bytes of pixel data, so returning
+ * to a view which was seen recently does not read and decode the same file again.
+ *
+ * Images are decoded at the size they are displayed at, rather than at full camera resolution,
+ * using smooth scaling. Display size is changed only when it differs from the current one by
+ * more than RESIZE_THRESHOLD, so small window adjustments do not cause images to be decoded again.
+ *
+ * If an AssetBundle is set, images found in it are decoded straight from the memory-mapped bundle,
+ * other urls are loaded as usual.
+ *
+ * Display is progressive: when an image is not ready, a small preview (stored in the bundle or decoded
+ * with subsampling) is shown first and replaced by the full image when it is decoded. Previews and
+ * images of requests overtaken by a newer one are never shown.
+ *
+ * A PixelFilter, such as sepia, can be baked into the pixels of decoded images. Each image is filtered once and
+ * the filtered copy is cached alongside the original, so painting it needs no scene graph effect.
+ *
+ * Time of decoding, of filtering and from a display request until its full image is painted, number
+ * of views shown, of display requests served at once or waited for and of images prefetched are
+ * recorded by the default MetricsRegistry. Prefetches look up the cache too, so only the display
+ * requests tell how often the user does not wait. Every decode of an image or a preview is also
+ * recorded by Flight Recorder as an ImageDecodeEvent.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class ImageLoader {
+
+	private static final Logger LOGGER = Logger.getLogger(ImageLoader.class.getName());
+	
+	public static final double RESIZE_THRESHOLD = 0.2; // relative change of size causing images to be decoded again
+
+	private static final LatencyHistogram DECODE_LATENCY = MetricsRegistry.getDefault().histogram("decode"); // decoding full images
+	private static final LatencyHistogram FILTER_LATENCY = MetricsRegistry.getDefault().histogram("filter"); // filtering decoded images
+	private static final LatencyHistogram PAINT_LATENCY = MetricsRegistry.getDefault().histogram("paint"); // display request until full image is shown
+	private static final Counter VIEWS_SHOWN = MetricsRegistry.getDefault().counter("viewsShown"); // full images shown
+	private static final Counter DISPLAY_HITS = MetricsRegistry.getDefault().counter("displayHits"); // display requests shown at once
+	private static final Counter DISPLAY_MISSES = MetricsRegistry.getDefault().counter("displayMisses"); // display requests waiting for a decode
+	private static final Counter PREFETCHES = MetricsRegistry.getDefault().counter("prefetches"); // images scheduled for prefetching
+
+	private final ExecutorService decoders; // worker threads decoding the images
+	private final ExecutorService previewDecoder; // thread decoding previews, so they do not wait for images
+	private final AtomicLong generation; // number of the latest display request
+	private long completedRequest; // latest request whose full image is shown
+	private long requestNanos; // System.nanoTime of the latest display request
+	private Map<String, CompletableFuture<Image>> window; // prefetched images by url
+	private final ByteBudgetCache<ImageKey, Image> cache; // recently decoded images
+	private int displayWidth; // width images are decoded at, 0 for original width
+	private int displayHeight; // height images are decoded at, 0 for original height
+	private volatile boolean preserveRatio; // true if aspect ratio is kept when decoding at display size
+	private volatile AssetBundle assetBundle; // packed images or null
+	private PixelFilter filter; // filter applied to decoded images or null
+	private final FilterPipeline pipeline; // applies the filter on all cores
+	private Consumer<String> displayListener; // notified when a full image is shown or null
+
+
+	/**
+	 * Constructor for the ImageLoader
+	 *
+	 * @param threads int number of decoding threads
+	 * @param cacheBytes long number of bytes of decoded pixels to be cached
+	 * @throws IllegalArgumentException if number of threads is not positive
+	 */
+	public ImageLoader(int threads, long cacheBytes)
+	{
+		if(threads < 1) {
+			throw new IllegalArgumentException("Number of decoding threads must be positive");
+		}
+		decoders = Executors.newFixedThreadPool(threads, new DecoderThreadFactory("image-decoder-"));
+		previewDecoder = Executors.newSingleThreadExecutor(new DecoderThreadFactory("image-preview-"));
+		generation = new AtomicLong();
+		window = new HashMap<String, CompletableFuture<Image>>();
+		cache = new ByteBudgetCache<ImageKey, Image>(cacheBytes, ImageLoader::getPixelBytes);
+		pipeline = new FilterPipeline();
+	}
+
+
+	/**
+	 * Constructor for the ImageLoader using one decoding thread 
+	 * per spare core (at most 4) and a quarter of the heap for cache.
+	 */
+	public ImageLoader()
+	{
+		this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+				Runtime.getRuntime().maxMemory() / 4);
+	}
+
+
+	/**
+	 * Shows the image on the ImageView. A prefetched or cached
+	 * image is shown immediately, otherwise its preview is shown
+	 * and the image is decoded in the background and shown 
+	 * when it is ready. Must be called on the JavaFX application thread.
+	 *
+	 * @param url String url of the image
+	 * @param target ImageView to display the image on
+	 */
+	public void display(String url, ImageView target)
+	{
+		long request = generation.incrementAndGet();
+		requestNanos = System.nanoTime();
+		ImageKey key = createKey(url);
+		PixelFilter imageFilter = filter;
+		CompletableFuture<Image> prefetched = window.get(url);
+		if(prefetched != null && !prefetched.isCancelled()) {
+			if(!prefetched.isDone()) {
+				DISPLAY_MISSES.increment();
+				displayPreview(request, key, imageFilter, target);
+				prefetched.thenAccept(image -> publish(request, url, image, target));
+				return;
+			}
+			Image image = prefetched.isCompletedExceptionally() ? null : prefetched.getNow(null);
+			//Prefetched image is already decoded, no need to wait for the next pulse
+			if(image != null) {
+				DISPLAY_HITS.increment();
+				show(request, url, image, target);
+				return;
+			}
+			//Prefetch failed to load the image, so it is loaded again below
+			window.remove(url);
+		}
+		Image cached = cache.get(key);
+		if(cached != null) {
+			DISPLAY_HITS.increment();
+			show(request, url, cached, target);
+			return;
+		}
+		DISPLAY_MISSES.increment();
+		displayPreview(request, key, imageFilter, target);
+		decoders.execute(() -> {
+			//Skips decoding if a newer image was requested meanwhile
+			if(request != generation.get()) {
+				return;
+			}
+			publish(request, url, load(key, imageFilter), target);
+		});
+	}
+
+
+	/**
+	 * Shows preview of the image, unless the image
+	 * itself is shown first or a newer image is requested
+	 *
+	 * @param request long number of the display request
+	 * @param key ImageKey of the image
+	 * @param imageFilter PixelFilter named in the key or null
+	 * @param target ImageView to display the preview on
+	 */
+	private void displayPreview(long request, ImageKey key, PixelFilter imageFilter, ImageView target)
+	{
+		ImageKey previewKey = key.toPreview();
+		Image cached = cache.get(previewKey);
+		if(cached != null) {
+			target.setImage(cached);
+			return;
+		}
+		previewDecoder.execute(() -> {
+			if(request != generation.get()) {
+				return;
+			}
+			Image preview = loadPreview(previewKey, imageFilter);
+			if(preview != null) {
+				Platform.runLater(() -> {
+					if(request == generation.get() && completedRequest != request) {
+						target.setImage(preview);
+					}
+				});
+			}
+		});
+	}
+
+
+	/**
+	 * Starts decoding images in the background, so they can
+	 * be displayed without waiting. Images from the previous
+	 * prefetch which are not requested again are released
+	 * and their decoding is cancelled, if not yet started.
+	 * Must be called on the JavaFX application thread.
+	 *
+	 * @param urls Collection of String image urls
+	 */
+	public void prefetch(Collection<String> urls)
+	{
+		Map<String, CompletableFuture<Image>> nextWindow = new HashMap<String, CompletableFuture<Image>>();
+		for(String url: urls) {
+			if(nextWindow.containsKey(url)) {
+				continue;
+			}
+			CompletableFuture<Image> image = window.remove(url);
+			if(image == null || image.isCancelled()) {
+				ImageKey key = createKey(url);
+				PixelFilter imageFilter = filter;
+				image = CompletableFuture.supplyAsync(() -> load(key, imageFilter), decoders);
+				PREFETCHES.increment();
+			}
+			nextWindow.put(url, image);
+		}
+		//Views which are no longer reachable are not decoded
+		for(CompletableFuture<Image> image: window.values()) {
+			image.cancel(false);
+		}
+		window = nextWindow;
+	}
+
+
+	/**
+	 * Shows decoded image on the JavaFX application thread
+	 * if it is still the latest one requested.
+	 *
+	 * @param request long number of the display request
+	 * @param url String url of the image
+	 * @param image decoded Image or null
+	 * @param target ImageView to display the image on
+	 */
+	private void publish(long request, String url, Image image, ImageView target)
+	{
+		if(image == null) {
+			return;
+		}
+		Platform.runLater(() -> {
+			if(request == generation.get()) {
+				show(request, url, image, target);
+			}
+		});
+	}
+
+
+	/**
+	 * Shows full image on the JavaFX application thread
+	 * and notifies the display listener
+	 *
+	 * @param request long number of the display request
+	 * @param url String url of the image
+	 * @param image decoded Image or null
+	 * @param target ImageView to display the image on
+	 */
+	private void show(long request, String url, Image image, ImageView target)
+	{
+		if(image != null) {
+			target.setImage(image);
+			//Only the latest request is shown, so its start time is the one recorded
+			PAINT_LATENCY.recordSince(requestNanos);
+			VIEWS_SHOWN.increment();
+			completedRequest = request;
+			Consumer<String> listener = displayListener;
+			if(listener != null) {
+				listener.accept(url);
+			}
+		}
+	}
+
+
+	/**
+	 * Sets listener notified on the JavaFX application thread
+	 * every time a full image (not a preview) is shown
+	 *
+	 * @param listener Consumer of String url of the image or null
+	 */
+	public void setDisplayListener(Consumer<String> listener)
+	{
+		displayListener = listener;
+	}
+
+
+	/**
+	 * Creates key of the image decoded at display
+	 * size and aspect ratio with current filter
+	 *
+	 * @param url String url of the image
+	 * @return ImageKey
+	 */
+	private ImageKey createKey(String url)
+	{
+		String filterName = filter == null ? "" : filter.getName();
+		return new ImageKey(url, displayWidth, displayHeight, filterName, preserveRatio);
+	}
+
+
+	/**
+	 * Gets image from the cache or decodes it
+	 * synchronously on the calling thread and
+	 * adds it to the cache. Filtered image is
+	 * created from the cached original.
+	 *
+	 * @param key ImageKey of the image
+	 * @param imageFilter PixelFilter named in the key or null
+	 * @return Image or null, if the image could not be loaded
+	 */
+	private Image load(ImageKey key, PixelFilter imageFilter)
+	{
+		Image image = cache.get(key);
+		if(image == null) {
+			if(key.isFiltered()) {
+				Image original = load(key.withoutFilter(), null);
+				image = original == null ? null : applyFilter(original, imageFilter);
+			}
+			else {
+				image = decode(key);
+			}
+			if(image != null) {
+				cache.put(key, image);
+			}
+		}
+		return image;
+	}
+
+
+	/**
+	 * Gets preview from the cache or decodes it with
+	 * subsampling on the calling thread and adds it to
+	 * the cache. Preview stored in the asset bundle is
+	 * used, if there is one.
+	 *
+	 * @param key ImageKey of the preview
+	 * @param imageFilter PixelFilter named in the key or null
+	 * @return Image or null, if the preview could not be loaded
+	 */
+	private Image loadPreview(ImageKey key, PixelFilter imageFilter)
+	{
+		Image image = cache.get(key);
+		if(image != null) {
+			return image;
+		}
+		String url = key.getUrl();
+		ImageDecodeEvent event = new ImageDecodeEvent();
+		event.begin();
+		AssetBundle bundle = assetBundle;
+		InputStream bundled = bundle == null ? null : bundle.openPreview(url);
+		try(InputStream in = bundled != null ? bundled : openUrl(url)) {
+			BufferedImage preview = PreviewDecoder.decode(in, key.getWidth(), key.getHeight());
+			if(preview == null) {
+				return null;
+			}
+			int width = preview.getWidth();
+			int height = preview.getHeight();
+			long encodedBytes = bundled != null ? bundle.getLength(url + AssetPacker.PREVIEW_SUFFIX) : -1;
+			commit(event, url, true, bundled != null, encodedBytes, width, height);
+			int[] pixels = PreviewDecoder.getPixels(preview);
+			if(imageFilter != null) {
+				pipeline.apply(imageFilter, pixels, width, height);
+			}
+			image = createImage(pixels, width, height);
+			cache.put(key, image);
+			return image;
+		}
+		catch(IOException e) {
+			//Image itself is still shown when decoded
+			LOGGER.log(Level.FINE, "Could not load preview of " + url, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Opens image url the same way as Image does:
+	 * url without scheme is a class path resource
+	 *
+	 * @param url String url of the image
+	 * @return InputStream of the image
+	 * @throws IOException if image cannot be opened
+	 */
+	private static InputStream openUrl(String url) throws IOException
+	{
+		try {
+			return new URL(url).openStream();
+		}
+		catch(MalformedURLException e) {
+			String path = url.startsWith("/") ? url.substring(1) : url;
+			URL resource = Thread.currentThread().getContextClassLoader().getResource(path);
+			if(resource == null) {
+				throw new IOException("Image not found " + url);
+			}
+			return resource.openStream();
+		}
+	}
+
+
+	/**
+	 * Creates a copy of the image with 
+	 * the filter applied to its pixels
+	 *
+	 * @param image decoded Image
+	 * @param imageFilter PixelFilter to be applied
+	 * @return filtered WritableImage
+	 */
+	private Image applyFilter(Image image, PixelFilter imageFilter)
+	{
+		long start = System.nanoTime();
+		int width = (int) image.getWidth();
+		int height = (int) image.getHeight();
+		int[] pixels = new int[width * height];
+		PixelReader reader = image.getPixelReader();
+		reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+		pipeline.apply(imageFilter, pixels, width, height);
+		Image filtered = createImage(pixels, width, height);
+		FILTER_LATENCY.recordSince(start);
+		return filtered;
+	}
+
+
+	/**
+	 * Creates image with given pixels
+	 *
+	 * @param pixels int[] ARGB pixels, row by row
+	 * @param width int number of pixels in a row
+	 * @param height int number of rows
+	 * @return WritableImage
+	 */
+	private static Image createImage(int[] pixels, int width, int height)
+	{
+		WritableImage image = new WritableImage(width, height);
+		image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+		return image;
+	}
+
+
+	/**
+	 * Sets filter applied to decoded images. Prefetched
+	 * images are released, if the filter changes. Must be
+	 * called on the JavaFX application thread.
+	 *
+	 * @param filter PixelFilter or null for unfiltered images
+	 * @return true if the filter was changed and displayed image should be loaded again
+	 */
+	public boolean setFilter(PixelFilter filter)
+	{
+		String oldName = this.filter == null ? "" : this.filter.getName();
+		String newName = filter == null ? "" : filter.getName();
+		this.filter = filter;
+		if(oldName.equals(newName)) {
+			return false;
+		}
+		//Prefetched images have old filter
+		prefetch(new ArrayList<String>());
+		return true;
+	}
+
+
+	/**
+	 * Gets share of display requests shown at once,
+	 * from the cache or the prefetched images
+	 *
+	 * @return double ratio of display hits, 0 if nothing was displayed
+	 */
+	public static double getDisplayHitRatio()
+	{
+		long hits = DISPLAY_HITS.getCount();
+		long requests = hits + DISPLAY_MISSES.getCount();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+
+	/**
+	 * Gets cache of decoded images
+	 *
+	 * @return ByteBudgetCache of images
+	 */
+	public ByteBudgetCache<ImageKey, Image> getCache()
+	{
+		return cache;
+	}
+
+
+	/**
+	 * Gets number of bytes of ARGB pixel data held by the image
+	 *
+	 * @param image Image
+	 * @return long number of bytes
+	 */
+	static long getPixelBytes(Image image)
+	{
+		return (long) image.getWidth() * (long) image.getHeight() * 4;
+	}
+
+
+	/**
+	 * Sets size the images are decoded at. Size is changed only
+	 * if width or height differs from the current one by more 
+	 * than RESIZE_THRESHOLD. When size changes, prefetched images
+	 * are released. Must be called on the JavaFX application thread.
+	 *
+	 * @param width double display width in pixels, 0 for original width
+	 * @param height double display height in pixels, 0 for original height
+	 * @param preserveRatio true if aspect ratio of the images is to be kept
+	 * @return true if the size was changed and displayed image should be decoded again
+	 */
+	public boolean setDisplaySize(double width, double height, boolean preserveRatio)
+	{
+		int newWidth = (int) Math.ceil(Math.max(0, width));
+		int newHeight = (int) Math.ceil(Math.max(0, height));
+		boolean changed = isResized(displayWidth, newWidth) || isResized(displayHeight, newHeight)
+				|| this.preserveRatio != preserveRatio;
+		if(changed) {
+			displayWidth = newWidth;
+			displayHeight = newHeight;
+			this.preserveRatio = preserveRatio;
+			//Prefetched images have old size
+			prefetch(new ArrayList<String>());
+		}
+		return changed;
+	}
+
+
+	/**
+	 * Checks if size is changed by more than RESIZE_THRESHOLD
+	 *
+	 * @param oldSize int current size, 0 for original size
+	 * @param newSize int requested size, 0 for original size
+	 * @return true if new size is to be used
+	 */
+	private static boolean isResized(int oldSize, int newSize)
+	{
+		if(oldSize == 0 || newSize == 0) {
+			return oldSize != newSize;
+		}
+		return Math.abs(newSize - oldSize) > oldSize * RESIZE_THRESHOLD;
+	}
+
+
+	/**
+	 * Decodes image synchronously on the calling thread,
+	 * scaling it smoothly to the requested size.
+	 *
+	 * @param key ImageKey with url and requested size of the image
+	 * @return decoded Image or null, if the image could not be loaded
+	 */
+	protected Image decode(ImageKey key)
+	{
+		String url = key.getUrl();
+		long start = System.nanoTime();
+		ImageDecodeEvent event = new ImageDecodeEvent();
+		event.begin();
+		try {
+			Image image;
+			AssetBundle bundle = assetBundle;
+			boolean bundled = bundle != null && bundle.contains(url);
+			if(bundled) {
+				//Decodes bytes directly from the mapped bundle
+				image = new Image(bundle.open(url), key.getWidth(), key.getHeight(), key.isPreserveRatio(), true);
+			}
+			else {
+				image = new Image(url, key.getWidth(), key.getHeight(), key.isPreserveRatio(), true, false);
+			}
+			if(image.isError()) {
+				LOGGER.log(Level.WARNING, "Could not load image " + url, image.getException());
+				return null;
+			}
+			DECODE_LATENCY.recordSince(start);
+			commit(event, url, false, bundled, bundled ? bundle.getLength(url) : -1, (int) image.getWidth(), (int) image.getHeight());
+			return image;
+		}
+		catch(IllegalArgumentException e) {
+			LOGGER.log(Level.WARNING, "Invalid image url " + url, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Commits Flight Recorder event of
+	 * a decode, if it is recorded
+	 *
+	 * @param event ImageDecodeEvent begun before decoding
+	 * @param url String url of the image
+	 * @param preview true if a subsampled preview was decoded
+	 * @param bundled true if image was read from the asset bundle
+	 * @param encodedBytes long size of the encoded image or -1, if unknown
+	 * @param width int width of the decoded image
+	 * @param height int height of the decoded image
+	 */
+	private static void commit(ImageDecodeEvent event, String url, boolean preview, boolean bundled, long encodedBytes,
+			int width, int height)
+	{
+		event.end();
+		if(event.shouldCommit()) {
+			event.url = url;
+			event.preview = preview;
+			event.bundled = bundled;
+			event.encodedBytes = encodedBytes;
+			event.width = width;
+			event.height = height;
+			event.pixelBytes = (long) width * height * 4;
+			event.commit();
+		}
+	}
+
+
+	/**
+	 * Sets bundle the images are read from
+	 *
+	 * @param assetBundle AssetBundle with packed images or null to load images by url
+	 */
+	public void setAssetBundle(AssetBundle assetBundle)
+	{
+		this.assetBundle = assetBundle;
+	}
+
+
+	/**
+	 * Gets bundle the images are read from
+	 *
+	 * @return AssetBundle or null if images are loaded by url
+	 */
+	public AssetBundle getAssetBundle()
+	{
+		return assetBundle;
+	}
+
+
+	/**
+	 * Stops decoding threads. Requests
+	 * which are not yet decoded are discarded.
+	 */
+	public void shutdown()
+	{
+		decoders.shutdownNow();
+		previewDecoder.shutdownNow();
+	}
+
+
+	/**
+	 * Creates daemon threads, so decoding
+	 * does not keep the application alive.
+	 */
+	private static class DecoderThreadFactory implements ThreadFactory {
+
+		private final String prefix; // name of the threads without number
+		private final AtomicInteger count = new AtomicInteger(); // number of created threads
+
+		private DecoderThreadFactory(String prefix)
+		{
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable task)
+		{
+			Thread thread = new Thread(task, prefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
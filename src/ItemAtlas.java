@@ -0,0 +1,164 @@
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import image.AssetBundle;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+
+/**
+ * ItemAtlas packs images of all items into a single image once, at startup. Every item is scaled
+ * to fit a cell of the size of item views, and cells are placed in rows of the atlas. Items are
+ * then shown by setting the atlas with the viewport of the item on an ImageView, so redrawing items
+ * allocates no images and reads no files.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class ItemAtlas {
+	
+	private static final Logger LOGGER = Logger.getLogger(ItemAtlas.class.getName());
+	
+	private static final int MAX_WIDTH = 4096; // maximum width of the atlas in pixels
+	
+	private final Image image; // packed item images
+	private final HashMap<String, Rectangle2D> viewports; // area of every item in the atlas by url
+	
+	
+	/**
+	 * Constructor for the ItemAtlas
+	 * 
+	 * @param image Image with packed item images
+	 * @param viewports area of every item in the atlas by url
+	 */
+	private ItemAtlas(Image image, HashMap<String, Rectangle2D> viewports)
+	{
+		this.image = image;
+		this.viewports = viewports;
+	}
+	
+	
+	/**
+	 * Loads item images and packs them into an atlas.
+	 * Images which cannot be loaded are left out.
+	 * 
+	 * @param urls Collection of String item urls
+	 * @param cellWidth double maximum width of an item in pixels
+	 * @param cellHeight double maximum height of an item in pixels
+	 * @param bundle AssetBundle with packed images or null
+	 * @return ItemAtlas
+	 */
+	public static ItemAtlas create(Collection<String> urls, double cellWidth, double cellHeight, AssetBundle bundle)
+	{
+		//Loads items scaled to fit the cell
+		HashMap<String, Image> items = new HashMap<String, Image>();
+		for(String url: new LinkedHashSet<String>(urls)) {
+			Image item = load(url, cellWidth, cellHeight, bundle);
+			if(item != null) {
+				items.put(url, item);
+			}
+		}
+		
+		//Places items in cells row by row
+		int cellW = (int) Math.ceil(cellWidth);
+		int cellH = (int) Math.ceil(cellHeight);
+		int cellsInRow = Math.max(1, MAX_WIDTH / Math.max(1, cellW));
+		int columns = Math.max(1, Math.min(cellsInRow, items.size()));
+		int rows = Math.max(1, (items.size() + columns - 1) / columns);
+		WritableImage atlas = new WritableImage(columns * cellW, rows * cellH);
+		HashMap<String, Rectangle2D> viewports = new HashMap<String, Rectangle2D>();
+		int cell = 0;
+		for(HashMap.Entry<String, Image> entry: items.entrySet()) {
+			Image item = entry.getValue();
+			int width = (int) item.getWidth();
+			int height = (int) item.getHeight();
+			int x = (cell % columns) * cellW;
+			int y = (cell / columns) * cellH;
+			atlas.getPixelWriter().setPixels(x, y, width, height, item.getPixelReader(), 0, 0);
+			viewports.put(entry.getKey(), new Rectangle2D(x, y, width, height));
+			cell++;
+		}
+		return new ItemAtlas(atlas, viewports);
+	}
+	
+	
+	/**
+	 * Loads item image scaled to fit the cell
+	 * 
+	 * @param url String item url
+	 * @param cellWidth double maximum width in pixels
+	 * @param cellHeight double maximum height in pixels
+	 * @param bundle AssetBundle with packed images or null
+	 * @return Image or null, if it could not be loaded
+	 */
+	private static Image load(String url, double cellWidth, double cellHeight, AssetBundle bundle)
+	{
+		try {
+			Image item;
+			if(bundle != null && bundle.contains(url)) {
+				item = new Image(bundle.open(url), cellWidth, cellHeight, true, true);
+			}
+			else {
+				item = new Image(url, cellWidth, cellHeight, true, true, false);
+			}
+			if(item.isError()) {
+				LOGGER.log(Level.WARNING, "Could not load item image " + url, item.getException());
+				return null;
+			}
+			return item;
+		}
+		catch(IllegalArgumentException e) {
+			LOGGER.log(Level.WARNING, "Invalid item image url " + url, e);
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Shows item on the ImageView using its viewport in the atlas
+	 * 
+	 * @param url String item url
+	 * @param view ImageView to display the item on
+	 * @return true if item is in the atlas and is shown
+	 */
+	public boolean show(String url, ImageView view)
+	{
+		Rectangle2D viewport = viewports.get(url);
+		if(viewport == null) {
+			return false;
+		}
+		view.setImage(image);
+		view.setViewport(viewport);
+		return true;
+	}
+	
+	
+	/**
+	 * Checks if item is in the atlas
+	 * 
+	 * @param url String item url
+	 * @return true if item is in the atlas
+	 */
+	public boolean contains(String url)
+	{
+		return viewports.containsKey(url);
+	}
+	
+	
+	/**
+	 * Gets image with packed items
+	 * 
+	 * @return Image atlas
+	 */
+	public Image getImage()
+	{
+		return image;
+	}
+
+}
@@ -0,0 +1,169 @@
+package model;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * World-wide index of items by name. For every item it holds its owner: the Location the item is
+ * in, or the collector (World or NavigationCursor) which picked it, so World checks and changes the
+ * owner of an item in constant time instead of scanning Locations. Names of the items are unique
+ * in the World.
+ *
+ * Owners are changed only by compare-and-set on the entry of the item, so when several sessions
+ * pick the same item at once exactly one of them becomes its owner, without locking the World.
+ *
+ * When the World navigates a WorldGraph, the index holds only items moved by the users and asks
+ * the graph for the Location an unmoved item was placed in, so a large graph is not scanned. A
+ * Location of the graph owns its items by its id, not by the Location object, so ownership does not
+ * depend on which object the graph materialised for the Location.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+class ItemIndex {
+
+	private final ConcurrentHashMap<String, Object> owners; // Location, id of graph Location or collector of the item by name
+	private final WorldGraph graph; // graph placing unmoved items or null
+
+
+	/**
+	 * Constructor for the ItemIndex
+	 *
+	 * @param graph WorldGraph placing unmoved items or null, if all items are added to the index
+	 */
+	ItemIndex(WorldGraph graph)
+	{
+		this.graph = graph;
+		owners = new ConcurrentHashMap<String, Object>();
+	}
+
+
+	/**
+	 * Adds items of the Locations to the index
+	 *
+	 * @param locations Collection of Locations
+	 * @throws IllegalArgumentException if an item name is used twice
+	 */
+	void addAll(Collection<Location> locations)
+	{
+		for(Location location: locations) {
+			for(Item item: location.getLocationContent()) {
+				if(owners.putIfAbsent(item.getName(), location) != null) {
+					throw new IllegalArgumentException("Duplicate item name " + item.getName());
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Gets Locations holding items of the index. When
+	 * the World navigates a WorldGraph, these are the 
+	 * Locations items were put in.
+	 *
+	 * @return LinkedHashSet of Locations
+	 */
+	LinkedHashSet<Location> getLocations()
+	{
+		LinkedHashSet<Location> locations = new LinkedHashSet<Location>();
+		for(Object owner: owners.values()) {
+			Location location = toLocation(owner);
+			if(location != null) {
+				locations.add(location);
+			}
+		}
+		return locations;
+	}
+
+
+	/**
+	 * Gets Location the item is in
+	 *
+	 * @param itemName String name of the item
+	 * @return Location or null, if item is collected or unknown
+	 */
+	Location locate(String itemName)
+	{
+		Object owner = owners.get(itemName);
+		if(owner == null && graph != null) {
+			int id = graph.findItem(itemName);
+			return id < 0 ? null : graph.getLocation(id);
+		}
+		return toLocation(owner);
+	}
+
+
+	/**
+	 * Makes the collector owner of the item if the
+	 * item is in the Location
+	 *
+	 * @param itemName String name of the item
+	 * @param location Location the item is expected in
+	 * @param collector World or NavigationCursor picking the item
+	 * @return true if the collector became the owner
+	 */
+	boolean collect(String itemName, Location location, Object collector)
+	{
+		Object owner = toOwner(location);
+		if(owners.replace(itemName, owner, collector)) {
+			return true;
+		}
+		//Items which were never moved are owned by their Location in the graph
+		if(graph != null && !owners.containsKey(itemName)) {
+			int id = graph.findItem(itemName);
+			return id >= 0 && owner.equals(id) && owners.putIfAbsent(itemName, collector) == null;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Makes the Location owner of the item
+	 * if the collector owns it
+	 *
+	 * @param itemName String name of the item
+	 * @param collector World or NavigationCursor putting the item
+	 * @param location Location the item is put in
+	 * @return true if the Location became the owner
+	 */
+	boolean place(String itemName, Object collector, Location location)
+	{
+		return owners.replace(itemName, collector, toOwner(location));
+	}
+
+
+	/**
+	 * Gets owner standing for the Location in the index:
+	 * id of the Location, if it is materialised from the
+	 * graph, or the Location itself
+	 *
+	 * @param location Location
+	 * @return Integer id or Location
+	 */
+	private Object toOwner(Location location)
+	{
+		if(graph != null && location instanceof PagedLocation) {
+			return ((PagedLocation) location).getId();
+		}
+		return location;
+	}
+
+
+	/**
+	 * Gets Location standing for the owner of an item,
+	 * materialising it from the graph if owner is an id
+	 *
+	 * @param owner Location, Integer id or collector
+	 * @return Location or null, if owner is a collector
+	 */
+	private Location toLocation(Object owner)
+	{
+		if(owner instanceof Integer) {
+			return graph.getLocation((Integer) owner);
+		}
+		return owner instanceof Location ? (Location) owner : null;
+	}
+
+}
@@ -0,0 +1,223 @@
+package metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds. Values are counted in log-linear buckets: every power of
+ * two is split into SUB_BUCKETS buckets of equal width, so a percentile is reported with a relative
+ * error of at most 1 / SUB_BUCKETS, from nanoseconds to hours, in a fixed array of counters.
+ *
+ * Recording a value takes a few atomic increments and never allocates or locks, so it can be done
+ * on the JavaFX application thread and on the decoding threads at once. Percentiles are computed
+ * when they are read, from counts which may be changed meanwhile.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+	private static final int SUB_BITS = 3; // bits of a value after its highest one bit selecting the bucket
+	private static final int SUB_BUCKETS = 1 << SUB_BITS; // buckets per power of two
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS; // buckets of all positive longs
+
+	private final String name; // name of the measured operation
+	private final AtomicLongArray counts; // number of values in every bucket
+	private final LongAdder sum; // sum of the values in nanoseconds
+	private final AtomicLong max; // largest value in nanoseconds
+
+
+	/**
+	 * Constructor for the LatencyHistogram
+	 *
+	 * @param name String name of the measured operation
+	 */
+	LatencyHistogram(String name)
+	{
+		this.name = name;
+		counts = new AtomicLongArray(BUCKETS);
+		sum = new LongAdder();
+		max = new AtomicLong();
+	}
+
+
+	/**
+	 * Records latency of an operation
+	 *
+	 * @param nanos long latency in nanoseconds, negative values are counted as 0
+	 */
+	public void record(long nanos)
+	{
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(getBucket(value));
+		sum.add(value);
+		long largest = max.get();
+		while(value > largest && !max.compareAndSet(largest, value)) {
+			largest = max.get();
+		}
+	}
+
+
+	/**
+	 * Records latency of an operation started
+	 * at the given time of System.nanoTime
+	 *
+	 * @param startNanos long time the operation started
+	 */
+	public void recordSince(long startNanos)
+	{
+		record(System.nanoTime() - startNanos);
+	}
+
+
+	/**
+	 * Gets name of the measured operation
+	 *
+	 * @return String name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+
+	@Override
+	public long getCount()
+	{
+		long total = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			total += counts.get(i);
+		}
+		return total;
+	}
+
+
+	@Override
+	public double getMeanMillis()
+	{
+		long values = getCount();
+		return values == 0 ? 0 : sum.sum() / 1e6 / values;
+	}
+
+
+	@Override
+	public double getMaxMillis()
+	{
+		return max.get() / 1e6;
+	}
+
+
+	@Override
+	public double get50thPercentileMillis()
+	{
+		return getPercentile(0.50) / 1e6;
+	}
+
+
+	@Override
+	public double get90thPercentileMillis()
+	{
+		return getPercentile(0.90) / 1e6;
+	}
+
+
+	@Override
+	public double get99thPercentileMillis()
+	{
+		return getPercentile(0.99) / 1e6;
+	}
+
+
+	/**
+	 * Gets percentile of the latencies as the upper
+	 * bound of the bucket holding it (nearest rank)
+	 *
+	 * @param fraction double percentile from 0 to 1
+	 * @return long latency in nanoseconds, 0 if nothing was recorded
+	 */
+	public long getPercentile(double fraction)
+	{
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if(total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * total));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if(seen >= rank) {
+				return Math.min(getUpperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+
+	@Override
+	public void reset()
+	{
+		for(int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.set(0);
+	}
+
+
+	/**
+	 * Gets summary of the histogram
+	 *
+	 * @return String with count, mean, percentiles and max in milliseconds
+	 */
+	@Override
+	public String toString()
+	{
+		return String.format(Locale.ROOT, "count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f ms",
+				getCount(), getMeanMillis(), get50thPercentileMillis(), get90thPercentileMillis(),
+				get99thPercentileMillis(), getMaxMillis());
+	}
+
+
+	/**
+	 * Gets bucket of a value. Values below SUB_BUCKETS
+	 * have a bucket each, larger values are bucketed by
+	 * their highest one bit and the SUB_BITS bits after it.
+	 *
+	 * @param value long non-negative value
+	 * @return int index of the bucket
+	 */
+	static int getBucket(long value)
+	{
+		if(value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+
+	/**
+	 * Gets largest value counted in a bucket
+	 *
+	 * @param bucket int index of the bucket
+	 * @return long value
+	 */
+	static long getUpperBound(int bucket)
+	{
+		if(bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+}
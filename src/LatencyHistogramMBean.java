@@ -0,0 +1,66 @@
+package metrics;
+
+/**
+ * Management interface of a LatencyHistogram, shown
+ * by JMX clients such as JConsole or Mission Control
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface LatencyHistogramMBean {
+
+
+	/**
+	 * Gets number of recorded latencies
+	 *
+	 * @return long number of values
+	 */
+	long getCount();
+
+
+	/**
+	 * Gets mean latency
+	 *
+	 * @return double milliseconds
+	 */
+	double getMeanMillis();
+
+
+	/**
+	 * Gets largest latency
+	 *
+	 * @return double milliseconds
+	 */
+	double getMaxMillis();
+
+
+	/**
+	 * Gets median latency
+	 *
+	 * @return double milliseconds
+	 */
+	double get50thPercentileMillis();
+
+
+	/**
+	 * Gets 90th percentile of the latencies
+	 *
+	 * @return double milliseconds
+	 */
+	double get90thPercentileMillis();
+
+
+	/**
+	 * Gets 99th percentile of the latencies
+	 *
+	 * @return double milliseconds
+	 */
+	double get99thPercentileMillis();
+
+
+	/**
+	 * Discards recorded latencies
+	 */
+	void reset();
+
+}
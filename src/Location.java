@@ -1,9 +1,14 @@
 package model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import model.Direction;
 
 
@@ -19,7 +24,9 @@ import model.Direction;
  * 
  * Location can have locationContent - a list with one or more item names and picture url. 
  * Content is visible on all views of the Location.
- * Maximum 3 items can be displayed at once.
+ * Maximum 3 items can be displayed at once, so items picked before
+ * can be put only in a Location which holds less than MAX_ITEMS items.
+ * Content can be changed by several sessions at once, see World.
  *
  * 
  * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
@@ -28,11 +35,19 @@ import model.Direction;
 
 public class Location {
 	
+	/**
+	 * Maximum number of items a Location can hold when items are put
+	 */
+	public static final int MAX_ITEMS = 3;
+	
 	private String name; // name of the Location
 	private Direction currentDirection; // current view of the Location
-	private HashMap<Direction, String> views; // Pairs of direction and image URL representing views of the Location
+	private EnumMap<Direction, String> views; // Pairs of direction and image URL representing views of the Location
 	private HashMap<Direction, Location> neighbours; //Neighbouring Locations which can be entered from this Location
-	private ArrayList<Item> locationContent; //content of the location
+	private CopyOnWriteArrayList<Item> locationContent; //content of the location, read without locking
+	private AtomicInteger itemCount; // number of items held or being added, guards MAX_ITEMS
+	private ItemFieldList itemNames; // read-only view of names of the content
+	private ItemFieldList itemUrls; // read-only view of image urls of the content
 	
 	/**
 	 * A constructor for a Location 
@@ -50,8 +65,12 @@ public class Location {
 			throw new IllegalArgumentException("Location views are invalid");
 		}
 		this.name = name;
-		this.views = views;
-		locationContent = new ArrayList<Item>();
+		// EnumMap is an array indexed by ordinal, no hashing on every turn
+		this.views = new EnumMap<Direction, String>(views);
+		locationContent = new CopyOnWriteArrayList<Item>();
+		itemCount = new AtomicInteger();
+		itemNames = new ItemFieldList(false);
+		itemUrls = new ItemFieldList(true);
 		neighbours = new HashMap<Direction, Location>();
 		currentDirection = Direction.NORTH;	// default Direction is set to North
 	}
@@ -128,6 +147,31 @@ public class Location {
 	}
 	
 	
+	/**
+	 * Gets views which can be reached in one step
+	 * when facing given Direction: views to the left,
+	 * to the right and opposite, and the view entered
+	 * by moving forward, if there is a neighbour.
+	 * 
+	 * @param direction Direction the Location is viewed from
+	 * @return ArrayList<String> with urls of the images
+	 */
+	public ArrayList<String> getReachableViews(Direction direction)
+	{
+		ArrayList<String> urls = new ArrayList<String>();
+		urls.add(views.get(direction.getLeft()));
+		urls.add(views.get(direction.getRight()));
+		urls.add(views.get(direction.getOpposite()));
+		//Neighbour is entered facing the same Direction
+		Location neighbour = neighbours.get(direction);
+		if(neighbour != null) {
+			urls.add(neighbour.getViews().get(direction));
+		}
+		
+		return urls;
+	}
+	
+	
 	/**
 	 * Adds neighbour to the Location
 	 * 
@@ -162,6 +206,19 @@ public class Location {
 	}
 	
 	
+	/**
+	 * Checks if there is a neighbour 
+	 * set on given Direction
+	 * 
+	 * @param direction Direction NORTH, SOUTH, WEST or EAST
+	 * @return true if moving forward in this Direction is possible
+	 */
+	public boolean hasNeighbour(Direction direction)
+	{
+		return neighbours.containsKey(direction);
+	}
+	
+	
 	/**
 	 * Checks if a Location is a neighbour of this Location
 	 * 
@@ -230,27 +287,51 @@ public class Location {
 	 */
 	public void addContent(Item item)
 	{
+		itemCount.incrementAndGet();
 		locationContent.add(item);
 		
 	}
 	
+	
+	/**
+	 * Adds Item to the Location if it holds less 
+	 * than capacity items. Space for the item is
+	 * claimed by compare-and-set, so concurrent 
+	 * sessions cannot exceed the capacity.
+	 * 
+	 * @param item Item to be added to the Location
+	 * @param capacity int maximum number of items
+	 * @return true if item was added
+	 */
+	public boolean addContent(Item item, int capacity)
+	{
+		int count;
+		do {
+			count = itemCount.get();
+			if(count >= capacity) {
+				return false;
+			}
+		} while(!itemCount.compareAndSet(count, count + 1));
+		locationContent.add(item);
+		return true;
+	}
+	
+	
 	/**
 	 * Removes item from location
 	 * 
-	 * @param pickedItem Item to be removed from the Location
+	 * @param itemName String name of the Item to be removed from the Location
+	 * @return removed Item or null, if not found
 	 */
-	public void removeItem(String itemName)
+	public Item removeItem(String itemName)
 	{   
-		Iterator<Item> it = locationContent.iterator();
-		while(it.hasNext()) {
-			Item item = it.next();
-			//Searches for an item with parameter name
-			String name = item.getName();
-			if(name.equals(itemName)) {
-				it.remove();// removes Item from the collection
-			}
+		//Item names are unique in the World, so the first match is removed
+		Item item = getItem(itemName);
+		if(item != null && locationContent.remove(item)) {
+			itemCount.decrementAndGet();
+			return item;
 		}
-			
+		return null;
 	}
 	
 	/**
@@ -262,13 +343,10 @@ public class Location {
 	public Item getItem(String itemName)
 	{   
 		
-        Item item;
-		Iterator<Item> it = locationContent.iterator();
-		while(it.hasNext()) {
-			item = it.next();
+		//Iterates over a snapshot, so concurrent changes are not seen
+		for(Item item: locationContent) {
 			//Searches for an item with parameter name
-			String name = item.getName();
-			if(name.equals(itemName)) {
+			if(item.getName().equals(itemName)) {
 				return item;
 			}
 		}
@@ -279,55 +357,93 @@ public class Location {
 	/**
 	 * Gets locationContent
 	 * 
-	 * @return Collection holding information of content present in the Location 
+	 * @return List holding information of content present in the Location, 
+	 * its iterator is a snapshot of the content
 	 */
-	public ArrayList<Item> getLocationContent()
+	public List<Item> getLocationContent()
 	{
 		return locationContent;
 	}
 	
 	/**
-	 * Gets names of the items 
+	 * Gets names of the items
 	 * 
-	 * @return ArrayList<String> collection of names of the items present in the Location
+	 * @return List<String> read-only view of names of the items present in the Location
 	 */
-	public ArrayList<String> getItemNames()
-	{   
-		ArrayList<String> names = new ArrayList<String>();
-		if(locationContent.size() > 0) {
-		    Iterator<Item> it = locationContent.iterator();
-		    while(it.hasNext()) {
-			    Item item = it.next();
-			    String name = item.getName();
-			    if(!name.equals(null)) {
-				    names.add(name);
-			}
-		     }
-		}
-		
-		return names;
+	public List<String> getItemNames()
+	{
+		return itemNames;
 	}
 	
 	/**
 	 * Gets urls of the items
 	 * 
-	 * @return ArrayList<String> collection of urls of the items present in the Location
+	 * @return List<String> read-only view of urls of the items present in the Location
 	 */
-	public ArrayList<String> getItemUrl()
+	public List<String> getItemUrl()
 	{
-		ArrayList<String> urls = new ArrayList<String>();
-		if(locationContent.size() > 0) {
-		    Iterator<Item> it = locationContent.iterator();
-		    while(it.hasNext()) {
-			    Item item = it.next();
-			    String url = item.getUrl();
-			    if(!url.equals(null)) {
-				    urls.add(url);
-			}
-		     }
+		return itemUrls;
+	}
+	
+	
+	/**
+	 * Read-only view of names or urls of the content. Iteration
+	 * and copying use a snapshot of the content, so they are safe
+	 * while other sessions pick and put items.
+	 */
+	private class ItemFieldList extends AbstractList<String> {
+		
+		private final boolean urls; // true for urls, false for names
+		
+		private ItemFieldList(boolean urls)
+		{
+			this.urls = urls;
 		}
 		
-		return urls;
+		private String field(Item item)
+		{
+			return urls ? item.getUrl() : item.getName();
+		}
+		
+		@Override
+		public String get(int index)
+		{
+			return field(locationContent.get(index));
+		}
+		
+		@Override
+		public int size()
+		{
+			return locationContent.size();
+		}
+		
+		@Override
+		public Iterator<String> iterator()
+		{
+			Iterator<Item> snapshot = locationContent.iterator();
+			return new Iterator<String>() {
+				@Override
+				public boolean hasNext()
+				{
+					return snapshot.hasNext();
+				}
+				@Override
+				public String next()
+				{
+					return field(snapshot.next());
+				}
+			};
+		}
+		
+		@Override
+		public Object[] toArray()
+		{
+			Object[] items = locationContent.toArray();
+			for(int i = 0; i < items.length; i++) {
+				items[i] = field((Item) items[i]);
+			}
+			return items;
+		}
 	}
 			
 		
@@ -340,4 +456,3 @@ public class Location {
 	
 	
 
-
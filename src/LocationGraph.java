@@ -0,0 +1,302 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Compact in-memory graph of Locations. Instead of two HashMaps per Location, views and neighbours
+ * of all Locations are stored in flat arrays with four entries per Location, indexed by
+ * id * 4 + Direction.ordinal(). Every Location also has a 4-bit mask of Directions with a neighbour,
+ * so checking if moving forward is possible is a single bit test. Names are found by binary search
+ * in an array of ids sorted by name.
+ *
+ * Location objects are materialised only when their items are needed and are then kept, because
+ * they hold the items picked and put by the user. The graph itself is never changed after it is
+ * created, and Locations are materialised without locking, so any number of sessions can navigate
+ * it from different threads, see NavigationCursor.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class LocationGraph implements WorldGraph {
+
+	private static final int DIRECTIONS = 4; // number of Directions, entries per Location
+
+	private final String[] names; // names by id
+	private final String[] views; // view urls by id * 4 + ordinal
+	private final int[] neighbours; // neighbour ids by id * 4 + ordinal, -1 if none
+	private final byte[] neighbourMasks; // bit (1 << ordinal) is set if there is a neighbour
+	private final int[] nameIndex; // ids sorted by name
+	private final Item[][] items; // items initially placed in the Locations by id, null if none
+	private String[] itemNames; // names of all items placed in the Locations, sorted
+	private int[] itemLocations; // ids of the Locations of the items in order of itemNames
+	private final AtomicReferenceArray<PagedLocation> materialised; // Locations created so far by id
+	private final int startId; // id of the start Location
+
+
+	/**
+	 * Constructor for the LocationGraph
+	 *
+	 * @param count int number of Locations
+	 * @param startId int id of the start Location
+	 */
+	private LocationGraph(int count, int startId)
+	{
+		names = new String[count];
+		views = new String[count * DIRECTIONS];
+		neighbours = new int[count * DIRECTIONS];
+		neighbourMasks = new byte[count];
+		nameIndex = new int[count];
+		items = new Item[count][];
+		materialised = new AtomicReferenceArray<PagedLocation>(count);
+		this.startId = startId;
+		Arrays.fill(neighbours, -1);
+	}
+
+
+	/**
+	 * Creates graph from the Locations registered in the World.
+	 * The start Location is the current Location of the World.
+	 *
+	 * @param world World with registered Locations
+	 * @return LocationGraph
+	 * @throws IllegalArgumentException if the World has no Locations
+	 */
+	public static LocationGraph of(World world)
+	{
+		Collection<Location> locations = world.getLocations();
+		if(locations.isEmpty()) {
+			throw new IllegalArgumentException("World has no locations");
+		}
+		Location[] byId = locations.toArray(new Location[0]);
+		HashMap<Location, Integer> ids = new HashMap<Location, Integer>(byId.length * 2);
+		for(int id = 0; id < byId.length; id++) {
+			ids.put(byId[id], id);
+		}
+		Integer startId = ids.get(world.getCurrentLocation());
+		LocationGraph graph = new LocationGraph(byId.length, startId == null ? 0 : startId);
+		for(int id = 0; id < byId.length; id++) {
+			Location location = byId[id];
+			graph.names[id] = location.getName();
+			for(Direction direction: Direction.values()) {
+				int index = id * DIRECTIONS + direction.ordinal();
+				graph.views[index] = location.getViews().get(direction);
+				Location neighbour = location.getNeighbours().get(direction);
+				if(neighbour != null) {
+					graph.neighbours[index] = ids.get(neighbour);
+					graph.neighbourMasks[id] |= 1 << direction.ordinal();
+				}
+			}
+			if(!location.getLocationContent().isEmpty()) {
+				graph.items[id] = location.getLocationContent().toArray(new Item[0]);
+			}
+		}
+		//Name index sorted by name for binary search
+		Integer[] sorted = new Integer[byId.length];
+		for(int id = 0; id < byId.length; id++) {
+			sorted[id] = id;
+		}
+		Arrays.sort(sorted, (a, b) -> graph.names[a].compareTo(graph.names[b]));
+		for(int i = 0; i < sorted.length; i++) {
+			graph.nameIndex[i] = sorted[i];
+		}
+		graph.indexItems();
+		return graph;
+	}
+
+
+	@Override
+	public int size()
+	{
+		return names.length;
+	}
+
+
+	@Override
+	public int getStartId()
+	{
+		return startId;
+	}
+
+
+	@Override
+	public String getName(int id)
+	{
+		return names[id];
+	}
+
+
+	@Override
+	public String getView(int id, Direction direction)
+	{
+		return views[id * DIRECTIONS + direction.ordinal()];
+	}
+
+
+	@Override
+	public int getNeighbour(int id, Direction direction)
+	{
+		return neighbours[id * DIRECTIONS + direction.ordinal()];
+	}
+
+
+	@Override
+	public boolean hasNeighbour(int id, Direction direction)
+	{
+		return (neighbourMasks[id] & (1 << direction.ordinal())) != 0;
+	}
+
+
+	/**
+	 * Gets Location, materialising it on first use. If two 
+	 * threads materialise the same Location at once, only 
+	 * the Location published first is used by both.
+	 *
+	 * @param id int id of the Location
+	 * @return Location
+	 */
+	@Override
+	public Location getLocation(int id)
+	{
+		PagedLocation location = materialised.get(id);
+		if(location == null) {
+			HashMap<Direction, String> locationViews = new HashMap<Direction, String>(8);
+			for(Direction direction: Direction.values()) {
+				locationViews.put(direction, getView(id, direction));
+			}
+			location = new PagedLocation(this, id, names[id], locationViews);
+			if(items[id] != null) {
+				for(Item item: items[id]) {
+					location.loadContent(item);
+				}
+			}
+			if(!materialised.compareAndSet(id, null, location)) {
+				location = materialised.get(id);
+			}
+		}
+		return location;
+	}
+
+
+	/**
+	 * Materialised Locations are never dropped,
+	 * so holding a Location does nothing
+	 *
+	 * @param id int id of the Location
+	 */
+	@Override
+	public void hold(int id)
+	{
+	}
+
+
+	/**
+	 * Materialised Locations are never dropped,
+	 * so releasing a Location does nothing
+	 *
+	 * @param id int id of the Location held
+	 */
+	@Override
+	public void release(int id)
+	{
+	}
+
+
+	@Override
+	public int findLocation(String name)
+	{
+		int low = 0;
+		int high = nameIndex.length - 1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = names[nameIndex[middle]].compareTo(name);
+			if(comparison < 0) {
+				low = middle + 1;
+			}
+			else if(comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				return nameIndex[middle];
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Finds Location the item was placed in
+	 * by binary search in the sorted item names
+	 *
+	 * @param itemName String name of the item
+	 * @return int id of the Location or -1, if the graph has no such item
+	 */
+	@Override
+	public int findItem(String itemName)
+	{
+		int index = Arrays.binarySearch(itemNames, itemName);
+		return index < 0 ? -1 : itemLocations[index];
+	}
+
+
+	/**
+	 * Creates sorted arrays of item names
+	 * and ids of their Locations
+	 */
+	private void indexItems()
+	{
+		int count = 0;
+		for(Item[] placed: items) {
+			count += placed == null ? 0 : placed.length;
+		}
+		String[] unsortedNames = new String[count];
+		Integer[] order = new Integer[count];
+		int[] locationIds = new int[count];
+		int next = 0;
+		for(int id = 0; id < items.length; id++) {
+			if(items[id] != null) {
+				for(Item item: items[id]) {
+					unsortedNames[next] = item.getName();
+					locationIds[next] = id;
+					order[next] = next;
+					next++;
+				}
+			}
+		}
+		Arrays.sort(order, (a, b) -> unsortedNames[a].compareTo(unsortedNames[b]));
+		itemNames = new String[count];
+		itemLocations = new int[count];
+		for(int i = 0; i < count; i++) {
+			itemNames[i] = unsortedNames[order[i]];
+			itemLocations[i] = locationIds[order[i]];
+		}
+	}
+
+
+	/**
+	 * Gets distinct urls of the items initially placed in
+	 * the Locations. Items are only moved between the
+	 * Locations and collectors, so these are urls of all items.
+	 *
+	 * @return ArrayList<String> with item urls
+	 */
+	@Override
+	public ArrayList<String> getAllItemUrls()
+	{
+		LinkedHashSet<String> urls = new LinkedHashSet<String>();
+		for(Item[] placed: items) {
+			if(placed != null) {
+				for(Item item: placed) {
+					urls.add(item.getUrl());
+				}
+			}
+		}
+		return new ArrayList<String>(urls);
+	}
+
+}
@@ -10,6 +10,8 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 
+import image.AssetServer;
+
 /**
  * Main program of the application. Launches the application and the GUI from fxml file.
  * 
@@ -18,6 +20,8 @@ import javafx.scene.layout.AnchorPane;
  */
 public class MainProgram extends Application {
 	
+	private WorldController controller;// Controller of the displayed World
+	
 
 	public void start(Stage stage) {
 		
@@ -72,7 +76,7 @@ public class MainProgram extends Application {
 			stage.show();
 			
 			
-			WorldController controller = (WorldController) fxmlLoader.getController();      			
+			controller = (WorldController) fxmlLoader.getController();      			
 			controller.initialize();//Sets initial scene
 			controller.applySepia();//Applies sepia filter to Location images
  
@@ -84,7 +88,22 @@ public class MainProgram extends Application {
 		}
 	}
 	
+	/**
+	 * Saves the session before the application exits
+	 */
+	@Override
+	public void stop() {
+		if(controller != null) {
+			controller.close();
+		}
+	}
+	
     public static void main(String args[]) {
+    	//Asset server responds without waiting for the ACK of the browser
+    	if(System.getProperty(WorldController.SERVER_PROPERTY) != null 
+    			&& System.getProperty(AssetServer.NODELAY_PROPERTY) == null) {
+    		System.setProperty(AssetServer.NODELAY_PROPERTY, "true");
+    	}
      	launch(args);
      	System.exit(0);
     }
@@ -0,0 +1,657 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Compact binary world graph which is memory-mapped instead of being read into the heap. Opening
+ * a graph only maps the file and reads its header, so it takes the same time for any number of
+ * Locations. Locations are materialised only when World navigates to them or asks for them, and
+ * are kept in a cache of limited size, least recently used ones being evicted. Locations whose
+ * items were picked or put are never evicted, so the changes are not lost, and neither are Locations
+ * held by a session, so a session never changes items of a Location another session cannot see.
+ * Views and neighbours are read from the mapping without locking, only materialising, holding and
+ * releasing Locations takes the lock of the cache.
+ *
+ * The file starts with a header of 32 bytes: magic number, version, number of Locations, id of the
+ * start Location and offsets of the records, of the item url table, of the name index and of the
+ * item index. Every
+ * Location has a fixed-size record of RECORD_SIZE bytes: offset of its name, offsets of its four
+ * view urls and ids of its four neighbours (-1 if none) in order of Direction.ordinal(), and offset
+ * of its item list (-1 if none). Strings are stored as unsigned short length followed by UTF-8 bytes,
+ * item list is a count followed by offsets of name and url of every item. The name index holds ids
+ * of the Locations sorted by name, item url table holds offsets of distinct item urls. The item index
+ * is a count followed by offset of the name and id of the Location of every item, sorted by name.
+ * Offsets are positions in the file, so a graph file can be at most 2 GB large.
+ *
+ * Usage: java model.MappedWorldGraph worldFile graphFile
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class MappedWorldGraph implements WorldGraph {
+
+	static final int MAGIC = 0x33445057; // "3DPW"
+	static final int VERSION = 2; // version of the graph format
+	private static final int HEADER_SIZE = 32; // size of the header in bytes
+	static final int RECORD_SIZE = 40; // size of a Location record in bytes
+	public static final int DEFAULT_CACHE_SIZE = 4096; // number of materialised Locations kept by default
+
+	private final MappedByteBuffer data; // mapped graph file
+	private final int count; // number of Locations
+	private final int startId; // id of the start Location
+	private final int recordsOffset; // position of the first record
+	private final int itemUrlsOffset; // position of the item url table
+	private final int nameIndexOffset; // position of the name index
+	private final int itemIndexOffset; // position of the item index
+	private final LinkedHashMap<Integer, PagedLocation> cache; // materialised Locations in access order
+	private final HashMap<Integer, PagedLocation> pinned; // evicted Locations with changed items or held
+
+
+	/**
+	 * Constructor for the MappedWorldGraph
+	 *
+	 * @param data mapped graph file positioned after the magic number and version
+	 * @param cacheSize int maximum number of materialised Locations kept in the cache
+	 */
+	private MappedWorldGraph(MappedByteBuffer data, int cacheSize)
+	{
+		this.data = data;
+		count = data.getInt(8);
+		startId = data.getInt(12);
+		recordsOffset = data.getInt(16);
+		itemUrlsOffset = data.getInt(20);
+		nameIndexOffset = data.getInt(24);
+		itemIndexOffset = data.getInt(28);
+		pinned = new HashMap<Integer, PagedLocation>();
+		cache = new LinkedHashMap<Integer, PagedLocation>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, PagedLocation> eldest)
+			{
+				if(size() <= cacheSize) {
+					return false;
+				}
+				//Changed and held Locations are kept, so their items are not lost
+				PagedLocation location = eldest.getValue();
+				if(location.isChanged() || location.isHeld()) {
+					pinned.put(eldest.getKey(), location);
+				}
+				return true;
+			}
+		};
+	}
+
+
+	/**
+	 * Maps graph file with default cache size
+	 *
+	 * @param file Path of the graph file
+	 * @return MappedWorldGraph
+	 * @throws IOException if file cannot be read or is not a graph file
+	 */
+	public static MappedWorldGraph open(Path file) throws IOException
+	{
+		return open(file, DEFAULT_CACHE_SIZE);
+	}
+
+
+	/**
+	 * Maps graph file
+	 *
+	 * @param file Path of the graph file
+	 * @param cacheSize int maximum number of materialised Locations kept in the cache
+	 * @return MappedWorldGraph
+	 * @throws IOException if file cannot be read or is not a graph file
+	 * @throws IllegalArgumentException if cache size is not positive
+	 */
+	public static MappedWorldGraph open(Path file, int cacheSize) throws IOException
+	{
+		if(cacheSize < 1) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		MappedByteBuffer data;
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_SIZE) {
+				throw new IOException("Not a world graph " + file);
+			}
+			//Mapping stays valid after the channel is closed
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if(data.getInt(0) != MAGIC) {
+			throw new IOException("Not a world graph " + file);
+		}
+		if(data.getInt(4) != VERSION) {
+			throw new IOException("Unsupported world graph version " + file);
+		}
+		MappedWorldGraph graph = new MappedWorldGraph(data, cacheSize);
+		if(graph.count < 1 || (long) graph.recordsOffset + (long) graph.count * RECORD_SIZE > data.capacity()) {
+			throw new IOException("Corrupted world graph " + file);
+		}
+		return graph;
+	}
+
+
+	/**
+	 * Gets number of Locations
+	 *
+	 * @return int number of Locations
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+
+	/**
+	 * Gets id of the start Location
+	 *
+	 * @return int id
+	 */
+	public int getStartId()
+	{
+		return startId;
+	}
+
+
+	/**
+	 * Gets name of the Location without materialising it
+	 *
+	 * @param id int id of the Location
+	 * @return String name
+	 */
+	public String getName(int id)
+	{
+		return readString(data.getInt(record(id)));
+	}
+
+
+	/**
+	 * Gets view of the Location without materialising it
+	 *
+	 * @param id int id of the Location
+	 * @param direction Direction of the view
+	 * @return String image url
+	 */
+	public String getView(int id, Direction direction)
+	{
+		return readString(data.getInt(record(id) + 4 + direction.ordinal() * 4));
+	}
+
+
+	/**
+	 * Gets neighbour of the Location without materialising it
+	 *
+	 * @param id int id of the Location
+	 * @param direction Direction of the neighbour
+	 * @return int id of the neighbour or -1, if there is none
+	 */
+	public int getNeighbour(int id, Direction direction)
+	{
+		return data.getInt(record(id) + 20 + direction.ordinal() * 4);
+	}
+
+
+	/**
+	 * Checks if there is a neighbour set on given
+	 * Direction without materialising the Location
+	 *
+	 * @param id int id of the Location
+	 * @param direction Direction NORTH, SOUTH, WEST or EAST
+	 * @return true if moving forward in this Direction is possible
+	 */
+	public boolean hasNeighbour(int id, Direction direction)
+	{
+		return getNeighbour(id, direction) >= 0;
+	}
+
+
+	/**
+	 * Gets Location, materialising it if it is not in the cache
+	 *
+	 * @param id int id of the Location
+	 * @return Location
+	 */
+	public synchronized Location getLocation(int id)
+	{
+		PagedLocation location = pinned.get(id);
+		if(location == null) {
+			location = cache.get(id);
+		}
+		if(location == null) {
+			location = materialise(id);
+			cache.put(id, location);
+		}
+		return location;
+	}
+
+
+	/**
+	 * Keeps Location materialised while a session is in it,
+	 * materialising it if it is not in the cache
+	 *
+	 * @param id int id of the Location
+	 */
+	public synchronized void hold(int id)
+	{
+		((PagedLocation) getLocation(id)).hold(1);
+	}
+
+
+	/**
+	 * Ends hold of the Location. Location which is held by no
+	 * session and holds no changed items goes back to the cache.
+	 *
+	 * @param id int id of the Location held
+	 */
+	public synchronized void release(int id)
+	{
+		PagedLocation location = pinned.get(id);
+		if(location == null) {
+			location = cache.get(id);
+		}
+		if(location != null && location.hold(-1) <= 0 && !location.isChanged() && pinned.remove(id) != null) {
+			cache.put(id, location);
+		}
+	}
+
+
+	/**
+	 * Finds Location by name using the name index
+	 *
+	 * @param name String name of the Location
+	 * @return int id or -1, if there is no Location with this name
+	 */
+	public int findLocation(String name)
+	{
+		int low = 0;
+		int high = count - 1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			int id = data.getInt(nameIndexOffset + middle * 4);
+			int comparison = getName(id).compareTo(name);
+			if(comparison < 0) {
+				low = middle + 1;
+			}
+			else if(comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Finds Location the item was placed in
+	 * using the item index
+	 *
+	 * @param itemName String name of the item
+	 * @return int id of the Location or -1, if the graph has no such item
+	 */
+	public int findItem(String itemName)
+	{
+		int low = 0;
+		int high = data.getInt(itemIndexOffset) - 1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			int entry = itemIndexOffset + 4 + middle * 8;
+			int comparison = readString(data.getInt(entry)).compareTo(itemName);
+			if(comparison < 0) {
+				low = middle + 1;
+			}
+			else if(comparison > 0) {
+				high = middle - 1;
+			}
+			else {
+				return data.getInt(entry + 4);
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Gets distinct urls of all items in the graph file
+	 *
+	 * @return ArrayList<String> with item urls
+	 */
+	public ArrayList<String> getAllItemUrls()
+	{
+		int urlCount = data.getInt(itemUrlsOffset);
+		ArrayList<String> urls = new ArrayList<String>(urlCount);
+		for(int i = 0; i < urlCount; i++) {
+			urls.add(readString(data.getInt(itemUrlsOffset + 4 + i * 4)));
+		}
+		return urls;
+	}
+
+
+	/**
+	 * Gets number of materialised Locations held
+	 *
+	 * @return int number of Locations in the cache and of changed or held ones
+	 */
+	public synchronized int getMaterialisedCount()
+	{
+		return cache.size() + pinned.size();
+	}
+
+
+	/**
+	 * Creates Location from its record
+	 *
+	 * @param id int id of the Location
+	 * @return PagedLocation
+	 */
+	private PagedLocation materialise(int id)
+	{
+		int record = record(id);
+		HashMap<Direction, String> views = new HashMap<Direction, String>(8);
+		for(Direction direction: Direction.values()) {
+			views.put(direction, getView(id, direction));
+		}
+		PagedLocation location = new PagedLocation(this, id, getName(id), views);
+		int items = data.getInt(record + 36);
+		if(items >= 0) {
+			int itemCount = data.getInt(items);
+			for(int i = 0; i < itemCount; i++) {
+				int item = items + 4 + i * 8;
+				location.loadContent(new Item(readString(data.getInt(item)), readString(data.getInt(item + 4))));
+			}
+		}
+		return location;
+	}
+
+
+	/**
+	 * Gets position of the record of the Location
+	 *
+	 * @param id int id of the Location
+	 * @return int position in the file
+	 * @throws IllegalArgumentException if there is no Location with this id
+	 */
+	private int record(int id)
+	{
+		if(id < 0 || id >= count) {
+			throw new IllegalArgumentException("Invalid location id " + id);
+		}
+		return recordsOffset + id * RECORD_SIZE;
+	}
+
+
+	/**
+	 * Reads string stored at given position
+	 *
+	 * @param offset int position in the file
+	 * @return String
+	 */
+	private String readString(int offset)
+	{
+		int length = data.getShort(offset) & 0xFFFF;
+		byte[] bytes = new byte[length];
+		ByteBuffer buffer = data.duplicate();
+		buffer.position(offset + 2);
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Writes Locations of the World to a graph file
+	 *
+	 * @param world World with registered Locations
+	 * @param file Path of the graph file to be written
+	 * @throws IOException if file cannot be written or is larger than 2 GB
+	 * @throws IllegalArgumentException if the World has no Locations
+	 */
+	public static void write(World world, Path file) throws IOException
+	{
+		Collection<Location> locations = world.getLocations();
+		if(locations.isEmpty()) {
+			throw new IllegalArgumentException("World has no locations");
+		}
+		//Assigns ids to the Locations
+		Location[] byId = locations.toArray(new Location[0]);
+		HashMap<Location, Integer> ids = new HashMap<Location, Integer>(byId.length * 2);
+		for(int id = 0; id < byId.length; id++) {
+			ids.put(byId[id], id);
+		}
+		Integer startId = ids.get(world.getCurrentLocation());
+
+		//Strings and item lists are written after the records and are deduplicated
+		StringTable strings = new StringTable(HEADER_SIZE + byId.length * RECORD_SIZE);
+		int[] records = new int[byId.length * RECORD_SIZE / 4];
+		ArrayList<Integer> itemUrls = new ArrayList<Integer>();
+		HashMap<String, Integer> itemUrlSet = new HashMap<String, Integer>();
+		ArrayList<String> itemNames = new ArrayList<String>();
+		ArrayList<int[]> itemEntries = new ArrayList<int[]>(); // offset of the name and id of the Location
+		for(int id = 0; id < byId.length; id++) {
+			Location location = byId[id];
+			int field = id * RECORD_SIZE / 4;
+			records[field] = strings.add(location.getName());
+			for(Direction direction: Direction.values()) {
+				records[field + 1 + direction.ordinal()] = strings.add(location.getViews().get(direction));
+				Location neighbour = location.getNeighbours().get(direction);
+				records[field + 5 + direction.ordinal()] = neighbour == null ? -1 : ids.get(neighbour);
+			}
+			List<Item> content = location.getLocationContent();
+			if(content.isEmpty()) {
+				records[field + 9] = -1;
+			}
+			else {
+				int[] items = new int[content.size() * 2];
+				for(int i = 0; i < content.size(); i++) {
+					items[i * 2] = strings.add(content.get(i).getName());
+					items[i * 2 + 1] = strings.add(content.get(i).getUrl());
+					itemNames.add(content.get(i).getName());
+					itemEntries.add(new int[] {items[i * 2], id});
+					if(!itemUrlSet.containsKey(content.get(i).getUrl())) {
+						itemUrlSet.put(content.get(i).getUrl(), items[i * 2 + 1]);
+						itemUrls.add(items[i * 2 + 1]);
+					}
+				}
+				records[field + 9] = strings.addInts(content.size(), items);
+			}
+		}
+		int[] urlTable = toArray(itemUrls);
+		int itemUrlsOffset = strings.addInts(urlTable.length, urlTable);
+
+		//Name index sorted by name for binary search
+		Integer[] sorted = new Integer[byId.length];
+		for(int id = 0; id < byId.length; id++) {
+			sorted[id] = id;
+		}
+		Arrays.sort(sorted, (a, b) -> byId[a].getName().compareTo(byId[b].getName()));
+		int[] nameIndex = new int[byId.length];
+		for(int i = 0; i < byId.length; i++) {
+			nameIndex[i] = sorted[i];
+		}
+		int nameIndexOffset = strings.addRaw(nameIndex);
+
+		//Item index sorted by name for binary search
+		Integer[] itemOrder = new Integer[itemNames.size()];
+		for(int i = 0; i < itemOrder.length; i++) {
+			itemOrder[i] = i;
+		}
+		Arrays.sort(itemOrder, (a, b) -> itemNames.get(a).compareTo(itemNames.get(b)));
+		int[] itemIndex = new int[itemOrder.length * 2];
+		for(int i = 0; i < itemOrder.length; i++) {
+			itemIndex[i * 2] = itemEntries.get(itemOrder[i])[0];
+			itemIndex[i * 2 + 1] = itemEntries.get(itemOrder[i])[1];
+		}
+		int itemIndexOffset = strings.addInts(itemOrder.length, itemIndex);
+
+		try(OutputStream stream = Files.newOutputStream(file);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(byId.length);
+			out.writeInt(startId == null ? 0 : startId);
+			out.writeInt(HEADER_SIZE);
+			out.writeInt(itemUrlsOffset);
+			out.writeInt(nameIndexOffset);
+			out.writeInt(itemIndexOffset);
+			for(int value: records) {
+				out.writeInt(value);
+			}
+			strings.writeTo(out);
+		}
+	}
+
+
+	/**
+	 * Converts a world file to a graph file
+	 *
+	 * @param args world file and graph file
+	 */
+	public static void main(String[] args)
+	{
+		if(args.length != 2) {
+			System.out.println("Usage: java model.MappedWorldGraph worldFile graphFile");
+			System.exit(1);
+		}
+		try(Reader source = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+			World world = new World(source);
+			write(world, Paths.get(args[1]));
+			System.out.println("Written " + world.getLocations().size() + " locations to " + args[1]);
+		}
+		catch(IOException | IllegalArgumentException e) {
+			System.out.println(e);
+			System.exit(1);
+		}
+	}
+
+
+	/**
+	 * Converts list to an array
+	 *
+	 * @param values ArrayList of Integers
+	 * @return int[] values
+	 */
+	private static int[] toArray(ArrayList<Integer> values)
+	{
+		int[] array = new int[values.size()];
+		for(int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+
+
+	/**
+	 * Data written after the records: deduplicated strings,
+	 * item lists, item url table and name index
+	 */
+	private static class StringTable {
+
+		private final HashMap<String, Integer> offsets; // position of every written string
+		private final ByteArrayOutputStream bytes; // encoded data
+		private final DataOutputStream out; // writes to bytes
+		private final int start; // position of the table in the file
+
+		private StringTable(int start)
+		{
+			this.start = start;
+			offsets = new HashMap<String, Integer>();
+			bytes = new ByteArrayOutputStream(1 << 16);
+			out = new DataOutputStream(bytes);
+		}
+
+		/**
+		 * Adds string unless it was already added
+		 *
+		 * @return int position of the string in the file
+		 */
+		private int add(String value) throws IOException
+		{
+			Integer offset = offsets.get(value);
+			if(offset == null) {
+				byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+				if(encoded.length > 0xFFFF) {
+					throw new IOException("String is too long " + value.substring(0, 32));
+				}
+				offset = position();
+				out.writeShort(encoded.length);
+				out.write(encoded);
+				offsets.put(value, offset);
+			}
+			return offset;
+		}
+
+		/**
+		 * Adds count of the entries followed by the values
+		 *
+		 * @return int position of the count in the file
+		 */
+		private int addInts(int count, int[] values) throws IOException
+		{
+			int offset = position();
+			out.writeInt(count);
+			for(int value: values) {
+				out.writeInt(value);
+			}
+			return offset;
+		}
+
+		/**
+		 * Adds values without count
+		 *
+		 * @return int position of the first value in the file
+		 */
+		private int addRaw(int[] values) throws IOException
+		{
+			int offset = position();
+			for(int value: values) {
+				out.writeInt(value);
+			}
+			return offset;
+		}
+
+		/**
+		 * Gets position of the next byte in the file
+		 *
+		 * @return int position
+		 * @throws IOException if file would be larger than 2 GB
+		 */
+		private int position() throws IOException
+		{
+			long position = (long) start + bytes.size();
+			if(position > Integer.MAX_VALUE) {
+				throw new IOException("World graph is larger than 2 GB");
+			}
+			return (int) position;
+		}
+
+		private void writeTo(OutputStream target) throws IOException
+		{
+			out.flush();
+			bytes.writeTo(target);
+		}
+	}
+
+}
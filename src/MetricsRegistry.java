@@ -0,0 +1,215 @@
+package metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the runtime metrics of the viewer: latency histograms, counters and gauges, found by
+ * name. Every metric is registered as an MBean named domain:type=Histogram|Counter|Gauge,name=name,
+ * so it can be watched with JConsole or Mission Control, and the registry itself as
+ * domain:type=Metrics with operations writing all metrics to a file and resetting them.
+ *
+ * Names of the metrics are identifiers, such as "decode". Metrics are created once, usually in
+ * static fields of the measuring class, so the hot path only updates them and never looks them up
+ * or allocates.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class MetricsRegistry implements MetricsRegistryMBean {
+
+	private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+
+	public static final String DOMAIN = "viewer"; // JMX domain of the default registry
+
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry(DOMAIN, ManagementFactory.getPlatformMBeanServer());
+
+	private final String domain; // JMX domain of the MBeans
+	private final MBeanServer server; // server the MBeans are registered with or null
+	private final ConcurrentHashMap<String, LatencyHistogram> histograms; // histograms by name
+	private final ConcurrentHashMap<String, Counter> counters; // counters by name
+	private final ConcurrentHashMap<String, Gauge> gauges; // gauges by name
+
+
+	/**
+	 * Constructor for the MetricsRegistry
+	 *
+	 * @param domain String JMX domain of the MBeans
+	 * @param server MBeanServer to register the MBeans with or null, if they are not registered
+	 */
+	public MetricsRegistry(String domain, MBeanServer server)
+	{
+		this.domain = domain;
+		this.server = server;
+		histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+		counters = new ConcurrentHashMap<String, Counter>();
+		gauges = new ConcurrentHashMap<String, Gauge>();
+		register("Metrics", null, this);
+	}
+
+
+	/**
+	 * Gets registry of the application, whose
+	 * MBeans are registered with the platform server
+	 *
+	 * @return MetricsRegistry
+	 */
+	public static MetricsRegistry getDefault()
+	{
+		return DEFAULT;
+	}
+
+
+	/**
+	 * Gets histogram by name, creating it if there is none
+	 *
+	 * @param name String name of the measured operation
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram histogram(String name)
+	{
+		return histograms.computeIfAbsent(name, key -> register("Histogram", key, new LatencyHistogram(key)));
+	}
+
+
+	/**
+	 * Gets counter by name, creating it if there is none
+	 *
+	 * @param name String name of the counted event
+	 * @return Counter
+	 */
+	public Counter counter(String name)
+	{
+		return counters.computeIfAbsent(name, key -> register("Counter", key, new Counter(key)));
+	}
+
+
+	/**
+	 * Gets gauge by name, creating it if there is none. A gauge
+	 * which exists reads its value from the new source, so a
+	 * replaced object is measured instead of the old one.
+	 *
+	 * @param name String name of the measured value
+	 * @param source DoubleSupplier reading the value
+	 * @return Gauge
+	 */
+	public Gauge gauge(String name, DoubleSupplier source)
+	{
+		Gauge gauge = gauges.computeIfAbsent(name, key -> register("Gauge", key, new Gauge(key, source)));
+		gauge.setSource(source);
+		return gauge;
+	}
+
+
+	/**
+	 * Formats all metrics, one per line,
+	 * sorted by type and name
+	 *
+	 * @return String lines of type, name and value
+	 */
+	public String format()
+	{
+		StringBuilder text = new StringBuilder();
+		text.append("# metrics ").append(Instant.now()).append('\n');
+		append(text, "histogram", histograms);
+		append(text, "counter", counters);
+		append(text, "gauge", gauges);
+		return text.toString();
+	}
+
+
+	/**
+	 * Writes all metrics to a file. The file is replaced
+	 * at once, so a reader never sees part of it.
+	 *
+	 * @param file Path of the file
+	 * @throws IOException if file cannot be written
+	 */
+	public void dump(Path file) throws IOException
+	{
+		Path absolute = file.toAbsolutePath();
+		Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		Files.write(temporary, format().getBytes(StandardCharsets.UTF_8));
+		Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+
+	@Override
+	public void dump(String file) throws IOException
+	{
+		dump(Paths.get(file));
+	}
+
+
+	@Override
+	public void reset()
+	{
+		for(LatencyHistogram histogram: histograms.values()) {
+			histogram.reset();
+		}
+		for(Counter counter: counters.values()) {
+			counter.reset();
+		}
+	}
+
+
+	/**
+	 * Appends metrics of one type sorted by name
+	 *
+	 * @param text StringBuilder to append to
+	 * @param type String type of the metrics
+	 * @param metrics Map of metrics by name
+	 */
+	private static void append(StringBuilder text, String type, Map<String, ?> metrics)
+	{
+		for(Map.Entry<String, ?> metric: new TreeMap<String, Object>(metrics).entrySet()) {
+			text.append(type).append(' ').append(metric.getKey()).append(' ').append(metric.getValue()).append('\n');
+		}
+	}
+
+
+	/**
+	 * Registers MBean of a metric. Metrics work the same
+	 * if it cannot be registered, so only a warning is logged.
+	 *
+	 * @param type String type of the MBean
+	 * @param name String name of the metric or null for the registry
+	 * @param mbean metric implementing its MBean interface
+	 * @return the metric
+	 */
+	private <T> T register(String type, String name, T mbean)
+	{
+		if(server == null) {
+			return mbean;
+		}
+		try {
+			ObjectName objectName = new ObjectName(domain + ":type=" + type + (name == null ? "" : ",name=" + name));
+			//Replaces MBean of a previous registry of the same domain
+			if(server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(mbean, objectName);
+		}
+		catch(JMException e) {
+			LOGGER.log(Level.WARNING, "Could not register MBean of " + type + " " + name, e);
+		}
+		return mbean;
+	}
+
+}
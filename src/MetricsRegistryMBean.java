@@ -0,0 +1,29 @@
+package metrics;
+
+import java.io.IOException;
+
+/**
+ * Management interface of a MetricsRegistry, shown
+ * by JMX clients such as JConsole or Mission Control
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface MetricsRegistryMBean {
+
+
+	/**
+	 * Writes all metrics to a file
+	 *
+	 * @param file String path of the file
+	 * @throws IOException if file cannot be written
+	 */
+	void dump(String file) throws IOException;
+
+
+	/**
+	 * Discards recorded latencies and counts
+	 */
+	void reset();
+
+}
@@ -0,0 +1,301 @@
+package model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+
+/**
+ * Navigation state of one session in a World which navigates a WorldGraph: id of the current
+ * Location, the Direction it is viewed from and the items collected in the session. The graph is
+ * not changed by navigation, so any number of cursors can navigate one shared graph from different
+ * threads without locking, only entering another Location holds it in the graph, see WorldGraph.hold().
+ * A cursor itself is used by one thread at a time.
+ *
+ * Items are shared by all sessions of the World, so an item picked in one session disappears
+ * from the Location in the other sessions. Picking and putting items does not lock the World,
+ * ownership of an item is changed by compare-and-set, see ItemIndex.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class NavigationCursor {
+
+	private final World world; // World holding the items of the Locations
+	private final WorldGraph graph; // shared graph navigated by the cursor
+	private int locationId; // id of the current Location
+	private Direction direction; // Direction the current Location is viewed from
+	private final HashMap<String, Item> collectedItems; // items collected in the session by name
+	private final Collection<String> collectedItemNames; // read-only view of names of collected items
+
+
+	/**
+	 * Constructor for the NavigationCursor
+	 * starting in the start Location facing North
+	 *
+	 * @param world World holding the items of the Locations
+	 * @param graph WorldGraph navigated by the cursor
+	 */
+	NavigationCursor(World world, WorldGraph graph)
+	{
+		this.world = world;
+		this.graph = graph;
+		locationId = graph.getStartId();
+		graph.hold(locationId);
+		direction = Direction.NORTH;
+		collectedItems = new HashMap<String, Item>();
+		collectedItemNames = Collections.unmodifiableSet(collectedItems.keySet());
+	}
+
+
+	/**
+	 * Gets view to the left of current one
+	 * in the same Location.
+	 *
+	 * @return string url of the image
+	 */
+	public String goLeft()
+	{
+		direction = direction.getLeft();
+		return graph.getView(locationId, direction);
+	}
+
+
+	/**
+	 * Gets view to the right of current one
+	 * in the same Location.
+	 *
+	 * @return string url of the image
+	 */
+	public String goRight()
+	{
+		direction = direction.getRight();
+		return graph.getView(locationId, direction);
+	}
+
+
+	/**
+	 * Enters the neighbouring Location, if there is one,
+	 * facing the same Direction
+	 *
+	 * @return string url of the image
+	 */
+	public String goForward()
+	{
+		int next = graph.getNeighbour(locationId, direction);
+		if(next >= 0) {
+			enter(next);
+		}
+		return graph.getView(locationId, direction);
+	}
+
+
+	/**
+	 * Enters the Location by id, facing the same 
+	 * Direction, without passing the Locations between
+	 *
+	 * @param id int id of the Location in the graph
+	 * @return string url of the image
+	 * @throws IllegalArgumentException if there is no Location with this id
+	 */
+	public String jumpTo(int id)
+	{
+		if(id < 0 || id >= graph.size()) {
+			throw new IllegalArgumentException("Invalid location id " + id);
+		}
+		enter(id);
+		return graph.getView(locationId, direction);
+	}
+
+
+	/**
+	 * Holds the Location entered and releases the one left,
+	 * so the current Location is never evicted from the graph
+	 *
+	 * @param id int id of the Location entered
+	 */
+	private void enter(int id)
+	{
+		if(id != locationId) {
+			graph.hold(id);
+			graph.release(locationId);
+			locationId = id;
+		}
+	}
+
+
+	/**
+	 * Sets Direction the current Location is viewed from
+	 *
+	 * @param direction Direction
+	 */
+	void face(Direction direction)
+	{
+		this.direction = direction;
+	}
+
+
+	/**
+	 * Adds item taken by World.takeItem
+	 * to the collected items
+	 *
+	 * @param item Item owned by the cursor
+	 */
+	void collect(Item item)
+	{
+		collectedItems.put(item.getName(), item);
+	}
+
+
+	/**
+	 * Gets item collected in the session
+	 *
+	 * @param itemName String name of the item
+	 * @return Item or null, if it is not collected
+	 */
+	Item getCollectedItem(String itemName)
+	{
+		return collectedItems.get(itemName);
+	}
+
+
+	/**
+	 * Checks if moving forward to next Location
+	 * is possible
+	 *
+	 * @return true if moving forward is possible
+	 */
+	public boolean canMoveForward()
+	{
+		return graph.hasNeighbour(locationId, direction);
+	}
+
+
+	/**
+	 * Gets image representing current view
+	 *
+	 * @return String url of the image
+	 */
+	public String getCurrentView()
+	{
+		return graph.getView(locationId, direction);
+	}
+
+
+	/**
+	 * Gets id of the current Location in the graph
+	 *
+	 * @return int id
+	 */
+	public int getLocationId()
+	{
+		return locationId;
+	}
+
+
+	/**
+	 * Gets name of the current Location
+	 *
+	 * @return String name
+	 */
+	public String getLocationName()
+	{
+		return graph.getName(locationId);
+	}
+
+
+	/**
+	 * Gets Direction the current Location is viewed from
+	 *
+	 * @return Direction
+	 */
+	public Direction getDirection()
+	{
+		return direction;
+	}
+
+
+	/**
+	 * Gets current Location, materialising it if needed.
+	 * Current Direction of the Location is not used by the
+	 * cursor, use getDirection() instead.
+	 *
+	 * @return Location
+	 */
+	public Location getLocation()
+	{
+		return graph.getLocation(locationId);
+	}
+
+
+	/**
+	 * Gets names of the items, present in current Location
+	 *
+	 * @return List<String> read-only view of item names
+	 */
+	public List<String> getItemNames()
+	{
+		return getLocation().getItemNames();
+	}
+
+
+	/**
+	 * Gets names of the items collected in the session
+	 *
+	 * @return Collection read-only view of String names of collected items
+	 */
+	public Collection<String> getCollectedItemNames()
+	{
+		return collectedItemNames;
+	}
+
+
+	/**
+	 * Checks if item is collected in the session
+	 *
+	 * @param itemName String name of the item
+	 * @return true if item is in the collected items
+	 */
+	public boolean isCollected(String itemName)
+	{
+		return collectedItems.containsKey(itemName);
+	}
+
+
+	/**
+	 * Picks item from current Location
+	 * and adds it to the collected items
+	 *
+	 * @param itemName String name of the item
+	 * @return true if item was picked
+	 */
+	public boolean pickItem(String itemName)
+	{
+		Item item = world.takeItem(itemName, getLocation(), this);
+		if(item == null) {
+			return false;
+		}
+		collectedItems.put(itemName, item);
+		return true;
+	}
+
+
+	/**
+	 * Puts collected item in current Location, if
+	 * it holds less than Location.MAX_ITEMS items
+	 *
+	 * @param itemName String name of the item
+	 * @return true if item was put, false if it is not collected or Location is full
+	 */
+	public boolean putItem(String itemName)
+	{
+		Item item = collectedItems.get(itemName);
+		if(item == null || !world.placeItem(item, this, getLocation())) {
+			return false;
+		}
+		collectedItems.remove(itemName);
+		return true;
+	}
+
+}
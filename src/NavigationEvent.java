@@ -0,0 +1,40 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a turn or a move of World, lasting from the
+ * call until listeners were notified about the new view. Fields are set
+ * only when the event is recorded, so a session which is not recorded
+ * does not look up names of the Locations.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@Name("viewer.Navigation")
+@Label("Navigation")
+@Category({"Viewer", "Navigation"})
+@Description("Turn or move of the World, including notification of the listeners")
+class NavigationEvent extends jdk.jfr.Event {
+
+	@Label("Action")
+	@Description("LEFT, RIGHT or FORWARD")
+	String action; // command of the user
+
+	@Label("Location")
+	String location; // name of the Location after the command
+
+	@Label("Direction")
+	String direction; // Direction the Location is viewed from after the command
+
+	@Label("View")
+	String url; // url of the view displayed after the command
+
+	@Label("Moved")
+	@Description("True if moving forward entered another Location")
+	boolean moved; // true if current Location changed
+
+}
@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * Listener interface for receiving notifications from World when the 
+ * displayed view changes, i.e. when current Location or its current 
+ * Direction is changed.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface NavigationListener {
+	
+	
+	/**
+	 * Invoked after the view has changed
+	 * 
+	 * @param location Location which is currently displayed
+	 * @param direction Direction the Location is viewed from
+	 */
+	void viewChanged(Location location, Direction direction);
+
+}
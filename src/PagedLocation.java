@@ -0,0 +1,205 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+/**
+ * Location materialised from a WorldGraph. Neighbours are not held, they are
+ * resolved through the graph by id when needed, so materialising a Location does not
+ * materialise the rest of the world. Neighbours cannot be added, because they are
+ * fixed by the graph. Location remembers whether its items were changed and how many
+ * sessions are in it, so MappedWorldGraph does not evict it from its cache.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+class PagedLocation extends Location {
+
+	private final WorldGraph graph; // graph the Location is paged from
+	private final int id; // id of the Location in the graph
+	private volatile boolean changed; // true if items were picked or put
+	private int holds; // number of sessions in the Location, guarded by the graph
+
+
+	/**
+	 * Constructor for the PagedLocation
+	 *
+	 * @param graph WorldGraph the Location is paged from
+	 * @param id int id of the Location in the graph
+	 * @param name String name of the Location
+	 * @param views Map of pairs of direction and image URL
+	 */
+	PagedLocation(WorldGraph graph, int id, String name, HashMap<Direction, String> views)
+	{
+		super(name, views);
+		this.graph = graph;
+		this.id = id;
+	}
+
+
+	/**
+	 * Gets id of the Location in the graph
+	 *
+	 * @return int id
+	 */
+	int getId()
+	{
+		return id;
+	}
+
+
+	/**
+	 * Checks if items of the Location were changed
+	 *
+	 * @return true if items were picked or put
+	 */
+	boolean isChanged()
+	{
+		return changed;
+	}
+
+
+	/**
+	 * Counts session entering or leaving the Location
+	 *
+	 * @param change int 1 if a session entered, -1 if it left
+	 * @return int number of sessions in the Location
+	 */
+	int hold(int change)
+	{
+		holds += change;
+		return holds;
+	}
+
+
+	/**
+	 * Checks if a session is in the Location
+	 *
+	 * @return true if the Location is held
+	 */
+	boolean isHeld()
+	{
+		return holds > 0;
+	}
+
+
+	/**
+	 * Adds Item stored in the graph
+	 * without marking the Location changed
+	 *
+	 * @param item Item to be added to the Location
+	 */
+	void loadContent(Item item)
+	{
+		super.addContent(item);
+	}
+
+
+	@Override
+	public Location moveForward()
+	{
+		int neighbour = graph.getNeighbour(id, getCurrentDirection());
+		if(neighbour < 0) {
+			return this;
+		}
+		Location nextLocation = graph.getLocation(neighbour);
+		nextLocation.setCurrentDirection(getCurrentDirection());
+		return nextLocation;
+	}
+
+
+	@Override
+	public ArrayList<String> getReachableViews(Direction direction)
+	{
+		ArrayList<String> urls = new ArrayList<String>();
+		urls.add(getViews().get(direction.getLeft()));
+		urls.add(getViews().get(direction.getRight()));
+		urls.add(getViews().get(direction.getOpposite()));
+		//View of the neighbour is read without materialising it
+		int neighbour = graph.getNeighbour(id, direction);
+		if(neighbour >= 0) {
+			urls.add(graph.getView(neighbour, direction));
+		}
+		return urls;
+	}
+
+
+	@Override
+	public boolean hasNeighbour(Direction direction)
+	{
+		return graph.hasNeighbour(id, direction);
+	}
+
+
+	@Override
+	public boolean isNeighbour(Location location)
+	{
+		if(!(location instanceof PagedLocation) || ((PagedLocation) location).graph != graph) {
+			return false;
+		}
+		for(Direction direction: Direction.values()) {
+			if(graph.getNeighbour(id, direction) == ((PagedLocation) location).id) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Gets Map of the neighbouring Locations,
+	 * materialising them
+	 *
+	 * @return HashMap with pairs of neighbouring Locations and Directions they are set on
+	 */
+	@Override
+	public HashMap<Direction, Location> getNeighbours()
+	{
+		HashMap<Direction, Location> neighbours = new HashMap<Direction, Location>();
+		for(Direction direction: Direction.values()) {
+			int neighbour = graph.getNeighbour(id, direction);
+			if(neighbour >= 0) {
+				neighbours.put(direction, graph.getLocation(neighbour));
+			}
+		}
+		return neighbours;
+	}
+
+
+	/**
+	 * Neighbours of the paged Location are fixed by the graph file
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void addNeighbour(Location neighbour, Direction direction)
+	{
+		throw new UnsupportedOperationException("Neighbours of a paged location cannot be changed");
+	}
+
+
+	@Override
+	public void addContent(Item item)
+	{
+		changed = true;
+		super.addContent(item);
+	}
+
+
+	@Override
+	public boolean addContent(Item item, int capacity)
+	{
+		changed = true;
+		return super.addContent(item, capacity);
+	}
+
+
+	@Override
+	public Item removeItem(String itemName)
+	{
+		changed = true;
+		return super.removeItem(itemName);
+	}
+
+}
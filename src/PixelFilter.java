@@ -0,0 +1,38 @@
+package image;
+
+/**
+ * Filter changing ARGB pixel data in place. Pixels are stored row by row in an int array, 
+ * pixel (x, y) being at offset + y * width + x. Filters work on bands of rows, so FilterPipeline 
+ * can filter different bands of the same image on several threads at once. A filter must only 
+ * change rows of its band and must not keep state between calls.
+ * 
+ * Name of the filter identifies images filtered by it in the cache, so two filters having
+ * the same name must produce the same pixels.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface PixelFilter {
+	
+	
+	/**
+	 * Filters a band of rows
+	 * 
+	 * @param pixels int[] ARGB pixels, row by row
+	 * @param offset int index of the first pixel of the image, negative if the array holds only the band
+	 * @param width int number of pixels in a row
+	 * @param height int number of rows of the whole image
+	 * @param fromRow int first row of the band
+	 * @param toRow int row after the last row of the band
+	 */
+	void filterRows(int[] pixels, int offset, int width, int height, int fromRow, int toRow);
+	
+	
+	/**
+	 * Gets name of the filter including its settings
+	 * 
+	 * @return String name
+	 */
+	String getName();
+
+}
@@ -0,0 +1,50 @@
+
+
+import java.util.ArrayList;
+
+import model.Direction;
+import model.Location;
+import model.NavigationListener;
+
+/**
+ * Prefetcher warms the ImageLoader with the views that can be reached from the current one in a 
+ * single step: views to the left, right and opposite in the same Location and the view shown after 
+ * moving forward to the neighbouring Location. It is notified by World every time the view changes.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class Prefetcher implements NavigationListener {
+	
+	private final ImageLoader imageLoader; // loader decoding prefetched images
+	
+	
+	/**
+	 * Constructor for the Prefetcher
+	 * 
+	 * @param imageLoader ImageLoader to be warmed
+	 */
+	public Prefetcher(ImageLoader imageLoader)
+	{
+		this.imageLoader = imageLoader;
+	}
+	
+	
+	/**
+	 * Prefetches current view and
+	 * views reachable from it.
+	 * 
+	 * @param location Location which is currently displayed
+	 * @param direction Direction the Location is viewed from
+	 */
+	@Override
+	public void viewChanged(Location location, Direction direction)
+	{
+		ArrayList<String> urls = new ArrayList<String>();
+		//Current view is kept, so it is not released while displayed
+		urls.add(location.getViews().get(direction));
+		urls.addAll(location.getReachableViews(direction));
+		imageLoader.prefetch(urls);
+	}
+
+}
@@ -0,0 +1,130 @@
+package image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decodes small previews of images. A preview is read with source subsampling, so only every n-th 
+ * pixel of every n-th row is converted and stored, which is much faster and smaller than a full 
+ * decode. AssetPacker also uses it to create thumbnails stored in the bundle next to the images.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class PreviewDecoder {
+	
+	public static final int PREVIEW_SCALE = 8; // preview is this many times smaller than the displayed image
+	
+	
+	/**
+	 * Private constructor, class has only static methods
+	 */
+	private PreviewDecoder()
+	{
+	}
+	
+	
+	/**
+	 * Decodes image subsampled to about the size of the preview
+	 * 
+	 * @param in InputStream of the encoded image
+	 * @param width int preview width, 0 to use the height only
+	 * @param height int preview height, 0 to use the width only
+	 * @return BufferedImage or null, if the format is not supported
+	 * @throws IOException if image cannot be read
+	 */
+	public static BufferedImage decode(InputStream in, int width, int height) throws IOException
+	{
+		try(ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+			if(stream == null) {
+				return null;
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+			if(!readers.hasNext()) {
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(stream, true, true);
+				int step = getSubsampling(reader.getWidth(0), reader.getHeight(0), width, height);
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(step, step, 0, 0);
+				return reader.read(0, param);
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Scales image down to a thumbnail
+	 * 
+	 * @param image BufferedImage to be scaled
+	 * @param width int thumbnail width
+	 * @param height int thumbnail height
+	 * @return BufferedImage thumbnail
+	 */
+	public static BufferedImage scale(BufferedImage image, int width, int height)
+	{
+		boolean alpha = image.getColorModel().hasAlpha();
+		BufferedImage thumbnail = new BufferedImage(Math.max(1, width), Math.max(1, height),
+				alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = thumbnail.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, thumbnail.getWidth(), thumbnail.getHeight(), null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		return thumbnail;
+	}
+	
+	
+	/**
+	 * Gets ARGB pixels of the image, row by row
+	 * 
+	 * @param image BufferedImage
+	 * @return int[] pixels
+	 */
+	public static int[] getPixels(BufferedImage image)
+	{
+		int width = image.getWidth();
+		int height = image.getHeight();
+		return image.getRGB(0, 0, width, height, null, 0, width);
+	}
+	
+	
+	/**
+	 * Gets subsampling step, so the decoded image
+	 * is not smaller than the requested size
+	 * 
+	 * @param sourceWidth int width of the encoded image
+	 * @param sourceHeight int height of the encoded image
+	 * @param width int requested width or 0
+	 * @param height int requested height or 0
+	 * @return int step, 1 for every pixel
+	 */
+	private static int getSubsampling(int sourceWidth, int sourceHeight, int width, int height)
+	{
+		int stepX = width > 0 ? sourceWidth / width : Integer.MAX_VALUE;
+		int stepY = height > 0 ? sourceHeight / height : Integer.MAX_VALUE;
+		int step = Math.min(stepX, stepY);
+		if(step == Integer.MAX_VALUE) {
+			step = PREVIEW_SCALE;
+		}
+		return Math.max(1, step);
+	}
+
+}
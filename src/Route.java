@@ -0,0 +1,90 @@
+package model;
+
+/**
+ * Shortest route between two Locations of a WorldGraph found by RoutePlanner. Route holds the
+ * ids of the Locations passed, from the start to the target, and the steps a user makes to follow
+ * it: L (turn left), R (turn right) and F (move forward). Turning to the opposite Direction is
+ * two steps to the right, as in the viewer.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class Route {
+
+	private final int[] locationIds; // ids of the Locations from start to target
+	private final String steps; // L, R and F steps following the route
+
+
+	/**
+	 * Constructor for the Route
+	 *
+	 * @param locationIds int[] ids of the Locations from start to target
+	 * @param moves Direction[] Directions of the forward moves, one less than Locations
+	 * @param facing Direction the start Location is viewed from
+	 */
+	Route(int[] locationIds, Direction[] moves, Direction facing)
+	{
+		this.locationIds = locationIds;
+		StringBuilder builder = new StringBuilder(moves.length * 2);
+		Direction direction = facing;
+		for(Direction move: moves) {
+			if(move == direction.getLeft()) {
+				builder.append('L');
+			}
+			else if(move == direction.getRight()) {
+				builder.append('R');
+			}
+			else if(move == direction.getOpposite()) {
+				builder.append("RR");
+			}
+			builder.append('F');
+			direction = move;
+		}
+		steps = builder.toString();
+	}
+
+
+	/**
+	 * Gets ids of the Locations passed
+	 *
+	 * @return int[] ids from start to target
+	 */
+	public int[] getLocationIds()
+	{
+		return locationIds.clone();
+	}
+
+
+	/**
+	 * Gets number of forward moves
+	 *
+	 * @return int length of the route
+	 */
+	public int getLength()
+	{
+		return locationIds.length - 1;
+	}
+
+
+	/**
+	 * Gets id of the target Location
+	 *
+	 * @return int id
+	 */
+	public int getTargetId()
+	{
+		return locationIds[locationIds.length - 1];
+	}
+
+
+	/**
+	 * Gets steps following the route
+	 *
+	 * @return String of L, R and F steps
+	 */
+	public String getSteps()
+	{
+		return steps;
+	}
+
+}
@@ -0,0 +1,459 @@
+package model;
+
+import java.util.Arrays;
+
+
+/**
+ * Finds shortest routes between Locations of a WorldGraph. Every move forward counts as one step,
+ * turns are free, as they do not change the Location. Neighbours are usually linked both ways, as
+ * done by Location.addNeighbour, but a Location whose neighbour was replaced is still linked to by
+ * the old one, so routes follow only moves forward along the links.
+ *
+ * For small graphs the next move from every Location towards every other one is precomputed by a
+ * breadth-first search from each Location, one byte per pair, so a route is read in time linear to
+ * its length. For large graphs this table would be too large, so distances to a few landmarks are
+ * precomputed instead and routes are searched by A* with the landmark lower bounds (ALT), which
+ * visits only a small part of the graph. Distances from a landmark bound the distance in both
+ * directions only if every link leads back, otherwise only the weaker one-way bound is used.
+ *
+ * Planner does not change after it is created and can be used by several sessions at once.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class RoutePlanner {
+
+	public static final int ALL_PAIRS_LIMIT = 2048; // largest graph with precomputed next moves
+	public static final int LANDMARKS = 8; // number of landmarks of a large graph
+	private static final byte NONE = -1; // no move, Location is not reachable
+	private static final Direction[] DIRECTIONS = Direction.values(); // Directions by ordinal
+
+	private final WorldGraph graph; // searched graph
+	private final int size; // number of Locations
+	private final byte[] nextMoves; // ordinal of the next move by from * size + to, or null
+	private final int[][] landmarkDistances; // distances from every landmark, -1 if unreachable, or null
+	private final boolean symmetric; // true if every neighbour links back
+	private final ThreadLocal<Search> searches; // state of A* reused by every thread
+
+
+	/**
+	 * Constructor for the RoutePlanner choosing the
+	 * index by the size of the graph
+	 *
+	 * @param graph WorldGraph
+	 */
+	public RoutePlanner(WorldGraph graph)
+	{
+		this(graph, graph.size() <= ALL_PAIRS_LIMIT);
+	}
+
+
+	/**
+	 * Constructor for the RoutePlanner
+	 *
+	 * @param graph WorldGraph
+	 * @param allPairs true to precompute next moves for all pairs, false to use landmarks
+	 */
+	public RoutePlanner(WorldGraph graph, boolean allPairs)
+	{
+		this.graph = graph;
+		size = graph.size();
+		if(allPairs) {
+			nextMoves = computeNextMoves();
+			landmarkDistances = null;
+			symmetric = false;
+			searches = null;
+		}
+		else {
+			nextMoves = null;
+			landmarkDistances = computeLandmarks(Math.min(LANDMARKS, size));
+			symmetric = isSymmetric();
+			searches = ThreadLocal.withInitial(() -> new Search(size));
+		}
+	}
+
+
+	/**
+	 * Finds shortest route
+	 *
+	 * @param from int id of the start Location
+	 * @param facing Direction the start Location is viewed from
+	 * @param to int id of the target Location
+	 * @return Route or null, if target cannot be reached
+	 */
+	public Route findRoute(int from, Direction facing, int to)
+	{
+		if(from < 0 || from >= size || to < 0 || to >= size) {
+			throw new IllegalArgumentException("Invalid location id " + (from < 0 || from >= size ? from : to));
+		}
+		return nextMoves != null ? readRoute(from, facing, to) : searchRoute(from, facing, to);
+	}
+
+
+	/**
+	 * Precomputes next moves by a breadth-first search
+	 * from every Location. Only moves forward along the
+	 * links are followed, so the moves are valid even if
+	 * a neighbour is not linked back.
+	 *
+	 * @return byte[] ordinals of the next moves
+	 */
+	private byte[] computeNextMoves()
+	{
+		byte[] moves = new byte[size * size];
+		Arrays.fill(moves, NONE);
+		int[] queue = new int[size];
+		int[] visited = new int[size];
+		for(int from = 0; from < size; from++) {
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = from;
+			visited[from] = from + 1;
+			int row = from * size;
+			while(head < tail) {
+				int location = queue[head++];
+				for(Direction direction: DIRECTIONS) {
+					int neighbour = graph.getNeighbour(location, direction);
+					if(neighbour >= 0 && visited[neighbour] != from + 1) {
+						visited[neighbour] = from + 1;
+						//Neighbour is reached by the first move of the route to the Location
+						moves[row + neighbour] = location == from ? (byte) direction.ordinal() : moves[row + location];
+						queue[tail++] = neighbour;
+					}
+				}
+			}
+		}
+		return moves;
+	}
+
+
+	/**
+	 * Reads route from the precomputed next moves
+	 *
+	 * @param from int id of the start Location
+	 * @param facing Direction the start Location is viewed from
+	 * @param to int id of the target Location
+	 * @return Route or null, if target cannot be reached
+	 */
+	private Route readRoute(int from, Direction facing, int to)
+	{
+		int length = 0;
+		for(int location = from; location != to; length++) {
+			byte move = nextMoves[location * size + to];
+			//Shortest route never visits a Location twice
+			if(move == NONE || length >= size) {
+				return null;
+			}
+			location = graph.getNeighbour(location, DIRECTIONS[move]);
+		}
+		int[] ids = new int[length + 1];
+		Direction[] moves = new Direction[length];
+		ids[0] = from;
+		for(int i = 0; i < length; i++) {
+			moves[i] = DIRECTIONS[nextMoves[ids[i] * size + to]];
+			ids[i + 1] = graph.getNeighbour(ids[i], moves[i]);
+		}
+		return new Route(ids, moves, facing);
+	}
+
+
+	/**
+	 * Checks if every neighbour links back
+	 * the opposite way
+	 *
+	 * @return true if all links lead both ways
+	 */
+	private boolean isSymmetric()
+	{
+		for(int location = 0; location < size; location++) {
+			for(Direction direction: DIRECTIONS) {
+				int neighbour = graph.getNeighbour(location, direction);
+				if(neighbour >= 0 && graph.getNeighbour(neighbour, direction.getOpposite()) != location) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Chooses landmarks far from each other and
+	 * computes distances from them
+	 *
+	 * @param count int number of landmarks
+	 * @return int[][] distances from every landmark
+	 */
+	private int[][] computeLandmarks(int count)
+	{
+		int[][] distances = new int[count][];
+		int[] queue = new int[size];
+		//Every next landmark is the Location farthest from the chosen ones
+		int[] nearest = new int[size];
+		Arrays.fill(nearest, Integer.MAX_VALUE);
+		int landmark = farthest(distancesFrom(graph.getStartId(), queue), nearest);
+		for(int i = 0; i < count; i++) {
+			distances[i] = distancesFrom(landmark, queue);
+			landmark = farthest(distances[i], nearest);
+		}
+		return distances;
+	}
+
+
+	/**
+	 * Updates distances to the nearest landmark and
+	 * finds Location which is farthest from all of them
+	 *
+	 * @param distances int[] distances from the last landmark
+	 * @param nearest int[] distances to the nearest landmark, updated
+	 * @return int id of the farthest reachable Location
+	 */
+	private int farthest(int[] distances, int[] nearest)
+	{
+		int farthest = 0;
+		int best = -1;
+		for(int id = 0; id < size; id++) {
+			if(distances[id] >= 0) {
+				nearest[id] = Math.min(nearest[id], distances[id]);
+				if(nearest[id] != Integer.MAX_VALUE && nearest[id] > best) {
+					best = nearest[id];
+					farthest = id;
+				}
+			}
+		}
+		return farthest;
+	}
+
+
+	/**
+	 * Computes distances by a breadth-first search
+	 *
+	 * @param from int id of the Location
+	 * @param queue int[] queue of the search
+	 * @return int[] distances, -1 if unreachable
+	 */
+	private int[] distancesFrom(int from, int[] queue)
+	{
+		int[] distances = new int[size];
+		Arrays.fill(distances, -1);
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = from;
+		distances[from] = 0;
+		while(head < tail) {
+			int location = queue[head++];
+			for(Direction direction: DIRECTIONS) {
+				int neighbour = graph.getNeighbour(location, direction);
+				if(neighbour >= 0 && distances[neighbour] < 0) {
+					distances[neighbour] = distances[location] + 1;
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+		return distances;
+	}
+
+
+	/**
+	 * Gets lower bound of the distance between
+	 * two Locations from the landmark distances
+	 *
+	 * @param from int id of a Location
+	 * @param to int id of the target Location
+	 * @return int lower bound, -1 if target is not reachable
+	 */
+	private int lowerBound(int from, int to)
+	{
+		int bound = 0;
+		for(int[] distances: landmarkDistances) {
+			int fromDistance = distances[from];
+			int toDistance = distances[to];
+			if(symmetric && (fromDistance < 0) != (toDistance < 0)) {
+				//Only one of them is connected to the landmark
+				return -1;
+			}
+			if(!symmetric && fromDistance >= 0 && toDistance < 0) {
+				//Target would be reachable from the landmark through the start
+				return -1;
+			}
+			if(fromDistance >= 0 && toDistance >= 0) {
+				bound = Math.max(bound, symmetric ? Math.abs(toDistance - fromDistance) : toDistance - fromDistance);
+			}
+		}
+		return bound;
+	}
+
+
+	/**
+	 * Searches route by A* with landmark lower bounds
+	 *
+	 * @param from int id of the start Location
+	 * @param facing Direction the start Location is viewed from
+	 * @param to int id of the target Location
+	 * @return Route or null, if target cannot be reached
+	 */
+	private Route searchRoute(int from, Direction facing, int to)
+	{
+		if(lowerBound(from, to) < 0) {
+			return null;
+		}
+		Search search = searches.get();
+		int stamp = search.start();
+		search.reach(from, 0, -1, NONE, stamp);
+		search.push(0, lowerBound(from, to), from);
+		while(!search.isEmpty()) {
+			int location = search.pop();
+			if(search.closed[location] == stamp) {
+				continue;
+			}
+			search.closed[location] = stamp;
+			if(location == to) {
+				return search.route(from, to, facing);
+			}
+			int distance = search.distances[location] + 1;
+			for(Direction direction: DIRECTIONS) {
+				int neighbour = graph.getNeighbour(location, direction);
+				if(neighbour >= 0 && search.closed[neighbour] != stamp
+						&& (search.reached[neighbour] != stamp || distance < search.distances[neighbour])) {
+					search.reach(neighbour, distance, location, (byte) direction.ordinal(), stamp);
+					search.push(distance, lowerBound(neighbour, to), neighbour);
+				}
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * State of A* kept by a thread between searches.
+	 * Arrays are not cleared, entries of earlier
+	 * searches have older stamps.
+	 */
+	private static class Search {
+
+		private final int[] distances; // distances from the start
+		private final int[] parents; // previous Location on the route
+		private final byte[] moves; // ordinal of the move from the previous Location
+		private final int[] reached; // stamp of the search which reached the Location
+		private final int[] closed; // stamp of the search which closed the Location
+		private long[] heap; // binary heap of keys, total bound << 32 | bound of the rest
+		private int[] heapIds; // ids of the Locations of the keys
+		private int heapSize; // number of entries in the heap
+		private int stamp; // stamp of the current search
+
+		private Search(int size)
+		{
+			distances = new int[size];
+			parents = new int[size];
+			moves = new byte[size];
+			reached = new int[size];
+			closed = new int[size];
+			heap = new long[64];
+			heapIds = new int[64];
+		}
+
+		/**
+		 * Starts new search
+		 *
+		 * @return int stamp of the search
+		 */
+		private int start()
+		{
+			if(++stamp == Integer.MAX_VALUE) {
+				Arrays.fill(reached, 0);
+				Arrays.fill(closed, 0);
+				stamp = 1;
+			}
+			heapSize = 0;
+			return stamp;
+		}
+
+		private void reach(int location, int distance, int parent, byte move, int stamp)
+		{
+			reached[location] = stamp;
+			distances[location] = distance;
+			parents[location] = parent;
+			moves[location] = move;
+		}
+
+		private boolean isEmpty()
+		{
+			return heapSize == 0;
+		}
+
+		/**
+		 * Adds Location to the heap. Of the Locations with the
+		 * same total bound the one closer to the target is taken
+		 * first, as many routes of the same length are usual.
+		 *
+		 * @param distance int distance from the start
+		 * @param bound int lower bound of the distance to the target
+		 * @param location int id of the Location
+		 */
+		private void push(int distance, int bound, int location)
+		{
+			if(heapSize == heap.length) {
+				heap = Arrays.copyOf(heap, heapSize * 2);
+				heapIds = Arrays.copyOf(heapIds, heapSize * 2);
+			}
+			long key = (long) (distance + bound) << 32 | bound;
+			int child = heapSize++;
+			while(child > 0) {
+				int parent = (child - 1) >>> 1;
+				if(heap[parent] <= key) {
+					break;
+				}
+				heap[child] = heap[parent];
+				heapIds[child] = heapIds[parent];
+				child = parent;
+			}
+			heap[child] = key;
+			heapIds[child] = location;
+		}
+
+		private int pop()
+		{
+			int top = heapIds[0];
+			long last = heap[--heapSize];
+			int lastId = heapIds[heapSize];
+			int parent = 0;
+			while(true) {
+				int child = parent * 2 + 1;
+				if(child >= heapSize) {
+					break;
+				}
+				if(child + 1 < heapSize && heap[child + 1] < heap[child]) {
+					child++;
+				}
+				if(last <= heap[child]) {
+					break;
+				}
+				heap[parent] = heap[child];
+				heapIds[parent] = heapIds[child];
+				parent = child;
+			}
+			heap[parent] = last;
+			heapIds[parent] = lastId;
+			return top;
+		}
+
+		/**
+		 * Creates route by following parents from the target
+		 */
+		private Route route(int from, int to, Direction facing)
+		{
+			int length = distances[to];
+			int[] ids = new int[length + 1];
+			Direction[] routeMoves = new Direction[length];
+			int location = to;
+			for(int i = length; i > 0; i--) {
+				ids[i] = location;
+				routeMoves[i - 1] = DIRECTIONS[moves[location]];
+				location = parents[location];
+			}
+			ids[0] = from;
+			return new Route(ids, routeMoves, facing);
+		}
+	}
+
+}
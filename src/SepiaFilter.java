@@ -0,0 +1,75 @@
+package image;
+
+/**
+ * Sepia filter applied directly to ARGB pixel data. It uses the same tone as the SepiaTone effect 
+ * of JavaFX: intensity of a pixel is tinted brown and mixed with original colour according to the 
+ * level of the filter (0 keeps original colours, 1 gives full sepia). Alpha is preserved.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class SepiaFilter implements PixelFilter {
+	
+	private final double level; // strength of the filter from 0 to 1
+	private final int keep; // fixed point weight of original colour
+	private final int tone; // fixed point weight of sepia tone
+	
+	
+	/**
+	 * Constructor for the SepiaFilter
+	 * 
+	 * @param level double strength of the filter from 0 to 1
+	 * @throws IllegalArgumentException if level is out of range
+	 */
+	public SepiaFilter(double level)
+	{
+		if(level < 0 || level > 1) {
+			throw new IllegalArgumentException("Sepia level must be between 0 and 1");
+		}
+		this.level = level;
+		keep = (int) Math.round((1 - level) * 256);
+		tone = 256 - keep;
+	}
+	
+	
+	@Override
+	public void filterRows(int[] pixels, int offset, int width, int height, int fromRow, int toRow)
+	{
+		int end = offset + toRow * width;
+		for(int i = offset + fromRow * width; i < end; i++) {
+			int argb = pixels[i];
+			int red = (argb >> 16) & 0xFF;
+			int green = (argb >> 8) & 0xFF;
+			int blue = argb & 0xFF;
+			//Intensity weights 0.3, 0.59 and 0.11 scaled by 1024
+			int intensity = (307 * red + 604 * green + 113 * blue) >> 10;
+			//Sepia tint 1.6, 1.2 and 0.9
+			int sepiaRed = Math.min(255, (intensity * 8) / 5);
+			int sepiaGreen = Math.min(255, (intensity * 6) / 5);
+			int sepiaBlue = (intensity * 9) / 10;
+			red = (red * keep + sepiaRed * tone) >> 8;
+			green = (green * keep + sepiaGreen * tone) >> 8;
+			blue = (blue * keep + sepiaBlue * tone) >> 8;
+			pixels[i] = (argb & 0xFF000000) | (red << 16) | (green << 8) | blue;
+		}
+	}
+	
+	
+	@Override
+	public String getName()
+	{
+		return "sepia:" + level;
+	}
+	
+	
+	/**
+	 * Gets level of the filter
+	 * 
+	 * @return double level from 0 to 1
+	 */
+	public double getLevel()
+	{
+		return level;
+	}
+
+}
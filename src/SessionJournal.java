@@ -0,0 +1,501 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+
+/**
+ * Append-only binary journal of a World session. Every change of the session (turn, move forward,
+ * teleport, pick and put) is appended to the journal file as one record, so a restarted viewer
+ * resumes where it was. Every SNAPSHOT_INTERVAL records the state of the session is written to a
+ * snapshot file next to the journal, so resuming loads the snapshot and replays at most
+ * SNAPSHOT_INTERVAL records, however long the session was.
+ *
+ * The journal file starts with a header of 16 bytes: magic number, version and generation. Every
+ * record is one byte of the operation, followed by the name of the item or Location for pick, put
+ * and teleport, stored as unsigned short length followed by UTF-8 bytes. A record cut off by a crash
+ * is dropped when the journal is opened.
+ *
+ * The snapshot holds generation and length of the journal it was taken at, the current Location and
+ * Direction, names of the collected items and the items, in order, of every Location holding a moved
+ * item, their number stored as unsigned short. It is written to a temporary file first and then moved over the old one. When the journal
+ * grows past COMPACT_SIZE it is started again with the next generation after a snapshot, records of
+ * an older generation than the snapshot are not replayed.
+ *
+ * Records of a batch of commands executed by World.execute are buffered and written together, and
+ * a snapshot due during the batch is taken after it.
+ *
+ * The journal records the session of the World itself, sessions of the cursors are not recorded.
+ * A journal must be opened with a World created the same way as the one it was written by.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class SessionJournal implements Closeable {
+
+	static final int MAGIC = 0x4C4E4A57; // "WJNL"
+	static final int SNAPSHOT_MAGIC = 0x504E5357; // "WSNP"
+	static final int VERSION = 1; // version of the journal format
+	static final int SNAPSHOT_VERSION = 2; // version of the snapshot format
+	private static final int HEADER_SIZE = 16; // size of the journal header in bytes
+	private static final int MAX_RECORD_SIZE = 3 + 0xFFFF; // size of the longest record
+	private static final int BUFFER_SIZE = 2 * MAX_RECORD_SIZE; // size of the buffer of records
+	public static final String SNAPSHOT_EXTENSION = ".snapshot"; // added to the journal path
+	public static final int SNAPSHOT_INTERVAL = 1000; // records between snapshots
+	public static final long COMPACT_SIZE = 16 * 1024 * 1024; // journal size it is started again at
+
+	static final byte LEFT = 1; // turn left
+	static final byte RIGHT = 2; // turn right
+	static final byte FORWARD = 3; // move forward
+	static final byte PICK = 4; // pick item by name
+	static final byte PUT = 5; // put item by name
+	static final byte TELEPORT = 6; // jump to Location by name
+
+	private final Path file; // journal file
+	private final Path snapshotFile; // snapshot of the session
+	private final World world; // recorded World
+	private final FileChannel channel; // journal file opened for appending
+	private final ByteBuffer buffer; // records not written to the journal yet
+	private long generation; // generation of the journal
+	private int records; // records since the last snapshot
+	private boolean batch; // whether records of a batch are being buffered
+
+
+	/**
+	 * Constructor for the SessionJournal
+	 *
+	 * @param file Path of the journal
+	 * @param world World recorded
+	 * @param channel FileChannel of the journal positioned at its end
+	 * @param generation long generation of the journal
+	 */
+	private SessionJournal(Path file, World world, FileChannel channel, long generation)
+	{
+		this.file = file;
+		this.world = world;
+		this.channel = channel;
+		this.generation = generation;
+		snapshotFile = file.resolveSibling(file.getFileName() + SNAPSHOT_EXTENSION);
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+
+	/**
+	 * Opens journal, resumes the session of the World
+	 * from the snapshot and records after it and records
+	 * further changes of the World. A new journal is
+	 * created, if there is none.
+	 *
+	 * @param file Path of the journal
+	 * @param world World just created, in its initial state
+	 * @return SessionJournal recording the World
+	 * @throws IOException if journal cannot be read or written or is not a journal file
+	 * @throws IllegalArgumentException if journal was written by a different World
+	 */
+	public static SessionJournal open(Path file, World world) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			SessionJournal journal;
+			if(channel.size() == 0) {
+				journal = new SessionJournal(file, world, channel, 0);
+				journal.writeHeader();
+			}
+			else {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+				while(header.hasRemaining() && channel.read(header, header.position()) > 0) {
+				}
+				header.flip();
+				if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+					throw new IOException("Not a session journal " + file);
+				}
+				if(header.getInt() != VERSION) {
+					throw new IOException("Unsupported session journal version " + file);
+				}
+				journal = new SessionJournal(file, world, channel, header.getLong());
+				journal.resume();
+			}
+			world.setJournal(journal);
+			return journal;
+		}
+		catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Writes header of the current generation
+	 * at the start of an empty journal
+	 *
+	 * @throws IOException if header cannot be written
+	 */
+	private void writeHeader() throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putLong(generation).flip();
+		while(header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+		channel.position(HEADER_SIZE);
+	}
+
+
+	/**
+	 * Loads snapshot and replays records after it
+	 *
+	 * @throws IOException if journal or snapshot cannot be read
+	 */
+	private void resume() throws IOException
+	{
+		long start = HEADER_SIZE;
+		if(Files.exists(snapshotFile)) {
+			ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+			try {
+				if(snapshot.getInt() != SNAPSHOT_MAGIC || snapshot.getInt() != SNAPSHOT_VERSION) {
+					throw new IOException("Not a session snapshot " + snapshotFile);
+				}
+				long snapshotGeneration = snapshot.getLong();
+				long offset = snapshot.getLong();
+				restore(snapshot);
+				if(snapshotGeneration != generation) {
+					//Journal was not started again after the snapshot, its records are in the snapshot
+					generation = snapshotGeneration;
+					channel.truncate(0);
+					writeHeader();
+					return;
+				}
+				start = offset;
+			}
+			catch(BufferUnderflowException e) {
+				throw new IOException("Corrupted session snapshot " + snapshotFile, e);
+			}
+		}
+		long end = replay(start);
+		//Drops the record cut off by a crash
+		if(end < channel.size()) {
+			channel.truncate(end);
+		}
+		channel.position(end);
+	}
+
+
+	/**
+	 * Restores state of the World from the snapshot
+	 *
+	 * @param snapshot ByteBuffer positioned after the journal offset
+	 */
+	private void restore(ByteBuffer snapshot)
+	{
+		String locationName = getString(snapshot);
+		Direction direction = Direction.values()[snapshot.get()];
+		int collectedCount = snapshot.getInt();
+		List<String> collected = new ArrayList<String>(collectedCount);
+		for(int i = 0; i < collectedCount; i++) {
+			collected.add(getString(snapshot));
+		}
+		int locationCount = snapshot.getInt();
+		List<String> locations = new ArrayList<String>(locationCount);
+		List<List<String>> contents = new ArrayList<List<String>>(locationCount);
+		for(int l = 0; l < locationCount; l++) {
+			locations.add(getString(snapshot));
+			int itemCount = snapshot.getShort() & 0xFFFF;
+			List<String> content = new ArrayList<String>(itemCount);
+			for(int i = 0; i < itemCount; i++) {
+				content.add(getString(snapshot));
+			}
+			contents.add(content);
+		}
+		world.restore(locationName, direction, collected, locations, contents);
+	}
+
+
+	/**
+	 * Replays records of the journal to the World
+	 *
+	 * @param start long position of the first record
+	 * @return long position after the last complete record
+	 * @throws IOException if journal cannot be read
+	 */
+	private long replay(long start) throws IOException
+	{
+		long size = channel.size();
+		if(start >= size) {
+			return Math.max(start, HEADER_SIZE);
+		}
+		ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, start, size - start);
+		int end = 0;
+		try {
+			while(data.hasRemaining()) {
+				byte operation = data.get();
+				switch(operation) {
+				    case LEFT:
+				    	world.goLeft();
+				    	break;
+				    case RIGHT:
+				    	world.goRight();
+				    	break;
+				    case FORWARD:
+				    	world.goForward();
+				    	break;
+				    case PICK:
+				    	world.pickItem(getString(data));
+				    	break;
+				    case PUT:
+				    	world.putItem(getString(data));
+				    	break;
+				    case TELEPORT:
+				    	world.teleport(getString(data));
+				    	break;
+				    default:
+				    	//Rest of the journal was not written completely
+				    	return start + end;
+				}
+				end = data.position();
+				records++;
+			}
+		}
+		catch(BufferUnderflowException e) {
+			//Last record was cut off
+		}
+		return start + end;
+	}
+
+
+	/**
+	 * Appends record of a change of the World
+	 * and takes a snapshot every SNAPSHOT_INTERVAL
+	 * records. Called after the change is made, so
+	 * the snapshot includes it. Records of a batch
+	 * are written when the buffer is full or the 
+	 * batch ends.
+	 *
+	 * @param operation byte operation such as LEFT or PICK
+	 * @param name String name of the item or Location, or null
+	 * @throws UncheckedIOException if journal cannot be written
+	 * @throws IllegalArgumentException if name is longer than 65535 bytes
+	 */
+	void record(byte operation, String name)
+	{
+		byte[] bytes = name == null ? null : name.getBytes(StandardCharsets.UTF_8);
+		if(bytes != null && bytes.length > 0xFFFF) {
+			throw new IllegalArgumentException("Name is too long " + name.substring(0, 32));
+		}
+		try {
+			if(buffer.remaining() < MAX_RECORD_SIZE) {
+				flush();
+			}
+			buffer.put(operation);
+			if(bytes != null) {
+				buffer.putShort((short) bytes.length);
+				buffer.put(bytes);
+			}
+			records++;
+			if(!batch) {
+				flush();
+				if(records >= SNAPSHOT_INTERVAL) {
+					snapshot();
+				}
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	/**
+	 * Starts buffering records of a batch of commands,
+	 * snapshots are not taken until the batch ends
+	 */
+	void beginBatch()
+	{
+		batch = true;
+	}
+
+
+	/**
+	 * Writes buffered records of the batch and
+	 * takes a snapshot, if it is due
+	 *
+	 * @throws UncheckedIOException if journal cannot be written
+	 */
+	void endBatch()
+	{
+		batch = false;
+		try {
+			flush();
+			if(records >= SNAPSHOT_INTERVAL) {
+				snapshot();
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	/**
+	 * Writes buffered records to the journal
+	 *
+	 * @throws IOException if journal cannot be written
+	 */
+	private void flush() throws IOException
+	{
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+
+	/**
+	 * Writes snapshot of the session, so records
+	 * before it are not replayed. Journal is started
+	 * again, if it is larger than COMPACT_SIZE.
+	 *
+	 * @throws IOException if snapshot cannot be written
+	 */
+	public void snapshot() throws IOException
+	{
+		flush();
+		boolean compact = channel.position() > COMPACT_SIZE;
+		long snapshotGeneration = compact ? generation + 1 : generation;
+		long offset = compact ? HEADER_SIZE : channel.position();
+		channel.force(false);
+		Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+		try(FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(target)));
+			output.writeInt(SNAPSHOT_MAGIC);
+			output.writeInt(SNAPSHOT_VERSION);
+			output.writeLong(snapshotGeneration);
+			output.writeLong(offset);
+			writeState(output);
+			output.flush();
+			target.force(true);
+		}
+		Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		if(compact) {
+			//Snapshot of the next generation is written first, so no record is lost
+			generation = snapshotGeneration;
+			channel.truncate(0);
+			writeHeader();
+		}
+		records = 0;
+	}
+
+
+	/**
+	 * Writes current state of the World
+	 *
+	 * @param output DataOutputStream of the snapshot
+	 * @throws IOException if snapshot cannot be written
+	 */
+	private void writeState(DataOutputStream output) throws IOException
+	{
+		writeString(output, world.getCurrentLocation().getName());
+		output.writeByte(world.getCurrentDirection().ordinal());
+		List<String> collected = new ArrayList<String>(world.getCollectedItemNames());
+		output.writeInt(collected.size());
+		for(String name: collected) {
+			writeString(output, name);
+		}
+		LinkedHashSet<Location> locations = world.getChangedLocations();
+		output.writeInt(locations.size());
+		for(Location location: locations) {
+			writeString(output, location.getName());
+			List<String> content = new ArrayList<String>(location.getItemNames());
+			if(content.size() > 0xFFFF) {
+				throw new IOException("Too many items in " + location.getName());
+			}
+			output.writeShort(content.size());
+			for(String name: content) {
+				writeString(output, name);
+			}
+		}
+	}
+
+
+	/**
+	 * Takes a snapshot and closes the journal.
+	 * World is not recorded any more.
+	 *
+	 * @throws IOException if snapshot cannot be written
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		world.setJournal(null);
+		try {
+			snapshot();
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+
+	/**
+	 * Gets path of the journal file
+	 *
+	 * @return Path
+	 */
+	public Path getFile()
+	{
+		return file;
+	}
+
+
+	/**
+	 * Writes string as unsigned short length
+	 * followed by UTF-8 bytes
+	 *
+	 * @param output DataOutputStream
+	 * @param value String
+	 * @throws IOException if string cannot be written or is longer than 65535 bytes
+	 */
+	private static void writeString(DataOutputStream output, String value) throws IOException
+	{
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if(bytes.length > 0xFFFF) {
+			throw new IOException("Name is too long " + value.substring(0, 32));
+		}
+		output.writeShort(bytes.length);
+		output.write(bytes);
+	}
+
+
+	/**
+	 * Gets string stored as unsigned short
+	 * length followed by UTF-8 bytes
+	 *
+	 * @param buffer ByteBuffer
+	 * @return String
+	 */
+	private static String getString(ByteBuffer buffer)
+	{
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,38 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of the listeners of World updating the view after
+ * a command: item views, menus, buttons and labels of the viewer. Fields
+ * are set only when the event is recorded.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+@Name("viewer.ViewUpdate")
+@Label("View Update")
+@Category({"Viewer", "View"})
+@Description("Update of the item views, menus, buttons and labels by the listeners of the World")
+class ViewUpdateEvent extends jdk.jfr.Event {
+
+	@Label("Action")
+	@Description("LEFT, RIGHT, FORWARD, TELEPORT, PICK or PUT")
+	String action; // command the view is updated after
+
+	@Label("Location")
+	String location; // name of the current Location
+
+	@Label("Direction")
+	String direction; // Direction the Location is viewed from
+
+	@Label("Items")
+	int items; // number of items in the Location
+
+	@Label("Collected Items")
+	int collectedItems; // number of collected items
+
+}
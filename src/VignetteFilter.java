@@ -0,0 +1,62 @@
+package image;
+
+/**
+ * Filter darkening the pixels towards the corners of the image. Strength from 0 to 1 is the 
+ * darkening of the corners (1 makes them black), falloff grows with the square of the distance 
+ * from the centre. Alpha is preserved.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public class VignetteFilter implements PixelFilter {
+	
+	private final double strength; // darkening of the corners from 0 to 1
+	
+	
+	/**
+	 * Constructor for the VignetteFilter
+	 * 
+	 * @param strength double darkening of the corners from 0 to 1
+	 * @throws IllegalArgumentException if strength is out of range
+	 */
+	public VignetteFilter(double strength)
+	{
+		if(strength < 0 || strength > 1) {
+			throw new IllegalArgumentException("Vignette strength must be between 0 and 1");
+		}
+		this.strength = strength;
+	}
+	
+	
+	@Override
+	public void filterRows(int[] pixels, int offset, int width, int height, int fromRow, int toRow)
+	{
+		double centreX = (width - 1) / 2.0;
+		double centreY = (height - 1) / 2.0;
+		//Squared distance to the corner is normalised to 1
+		double scale = 1 / Math.max(1e-9, centreX * centreX + centreY * centreY);
+		for(int y = fromRow; y < toRow; y++) {
+			double dy = y - centreY;
+			double rowDistance = dy * dy;
+			int row = offset + y * width;
+			for(int x = 0; x < width; x++) {
+				double dx = x - centreX;
+				//Fixed point factor of the pixel brightness
+				int factor = (int) ((1 - strength * (dx * dx + rowDistance) * scale) * 256);
+				int argb = pixels[row + x];
+				int red = (((argb >> 16) & 0xFF) * factor) >> 8;
+				int green = (((argb >> 8) & 0xFF) * factor) >> 8;
+				int blue = ((argb & 0xFF) * factor) >> 8;
+				pixels[row + x] = (argb & 0xFF000000) | (red << 16) | (green << 8) | blue;
+			}
+		}
+	}
+	
+	
+	@Override
+	public String getName()
+	{
+		return "vignette:" + strength;
+	}
+
+}
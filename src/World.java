@@ -1,7 +1,13 @@
 package model;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import model.Location;
 
@@ -19,7 +25,20 @@ public class World {
 	
 
 	private HashMap<String, Item> collectedItems; // Collection of collected items String names and items
+	private Collection<String> collectedItemNames; // Read-only view of names of collected items
 	private Location currentLocation; // Currently displayed Location
+	private HashMap<String, Location> locations; // All Locations of the World by name
+	private WorldGraph graph; // Graph navigated by ids or null, if Locations are registered
+	private NavigationCursor cursor; // Navigation state of this World in the graph
+	private ArrayList<NavigationListener> navigationListeners; // Listeners notified when view changes
+	private ArrayList<WorldChangeListener> changeListeners; // Listeners notified about changes of the session
+	private boolean forwardAvailable; // Whether moving forward was possible when listeners were last notified
+	private ItemIndex itemIndex; // Location of every item by name
+	private WorldGraph routeGraph; // Graph searched for routes, created when first needed
+	private RoutePlanner routePlanner; // Planner of routes over routeGraph
+	private SessionJournal journal; // Journal recording changes of the session or null
+	private final NavigationEvent navigation = new NavigationEvent(); // Flight Recorder event reused by every turn and move
+	private final ViewUpdateEvent viewUpdate = new ViewUpdateEvent(); // Flight Recorder event reused by every view update
 	
 	
 	/**
@@ -27,8 +46,77 @@ public class World {
 	 */
 	public World()
 	{
-		collectedItems = new HashMap<String, Item>();
+		createCollections();
 	    setUpLocations();// Creates locations and content
+	    itemIndex = new ItemIndex(null);
+	    itemIndex.addAll(locations.values());
+	}
+	
+	
+	/**
+	 * Constructor for the World defined 
+	 * in a world file
+	 * 
+	 * @param source Reader of the world file, see WorldReader
+	 * @throws IOException if world file cannot be read
+	 * @throws IllegalArgumentException if world file is invalid or item names are not unique
+	 */
+	public World(Reader source) throws IOException
+	{
+		createCollections();
+		WorldReader.read(source, this);
+		itemIndex = new ItemIndex(null);
+		itemIndex.addAll(locations.values());
+	}
+	
+	
+	/**
+	 * Constructor for the World navigating a graph
+	 * of Locations by ids. Locations are materialised 
+	 * by the graph only when their items are needed 
+	 * and are not registered. Other sessions can share
+	 * the World using cursors, see openCursor().
+	 * 
+	 * @param graph WorldGraph such as LocationGraph or MappedWorldGraph
+	 */
+	public World(WorldGraph graph)
+	{
+		createCollections();
+		this.graph = graph;
+		//Items which are not moved are found by the graph
+		itemIndex = new ItemIndex(graph);
+		cursor = new NavigationCursor(this, graph);
+	}
+	
+	
+	/**
+	 * Opens a new session navigating the graph of 
+	 * this World. Sessions share the graph and the 
+	 * items of the Locations, but each of them has 
+	 * its own current view and collected items.
+	 * 
+	 * @return NavigationCursor starting in the start Location
+	 * @throws IllegalStateException if the World does not navigate a graph
+	 */
+	public NavigationCursor openCursor()
+	{
+		if(graph == null) {
+			throw new IllegalStateException("World does not navigate a graph, see LocationGraph.of");
+		}
+		return new NavigationCursor(this, graph);
+	}
+	
+	
+	/**
+	 * Creates empty collections of the World
+	 */
+	private void createCollections()
+	{
+		collectedItems = new HashMap<String, Item>();
+		collectedItemNames = Collections.unmodifiableSet(collectedItems.keySet());
+		navigationListeners = new ArrayList<NavigationListener>();
+		changeListeners = new ArrayList<WorldChangeListener>();
+		locations = new HashMap<String, Location>();
 	}
 	
 	/**
@@ -65,6 +153,13 @@ public class World {
 				Location pSkargaYard = new Location("pSkarga", views3);
 				Location observatoryYard = new Location("observatory", views4);
 		
+				//Registers Locations of the World
+				addLocation(outside);
+				addLocation(sarbievijusYard);
+				addLocation(sDaukantasYard);
+				addLocation(pSkargaYard);
+				addLocation(observatoryYard);
+		
 				//Adds neigbours to the Locations
 				outside.addNeighbour(sarbievijusYard, Direction.NORTH);
 				sarbievijusYard.addNeighbour(sDaukantasYard, Direction.NORTH);
@@ -93,6 +188,82 @@ public class World {
 	}
 	
 
+	/**
+	 * Adds Location to the World
+	 * 
+	 * @param location Location to be added
+	 * @throws IllegalArgumentException if there is a Location with the same name
+	 */
+	void addLocation(Location location)
+	{
+		if(locations.containsKey(location.getName())) {
+			throw new IllegalArgumentException("Duplicate location name " + location.getName());
+		}
+		locations.put(location.getName(), location);
+	}
+	
+	
+	/**
+	 * Gets Location by name
+	 * 
+	 * @param name String name of the Location
+	 * @return Location or null, if there is no Location with this name
+	 */
+	public Location getLocation(String name)
+	{
+		Location location = locations.get(name);
+		if(location == null && graph != null) {
+			int id = graph.findLocation(name);
+			location = id < 0 ? null : graph.getLocation(id);
+		}
+		return location;
+	}
+	
+	
+	/**
+	 * Sets Location which is displayed
+	 * 
+	 * @param location Location of the World
+	 */
+	void setCurrentLocation(Location location)
+	{
+		currentLocation = location;
+	}
+	
+	
+	/**
+	 * Gets all Locations of the World
+	 * 
+	 * @return Collection of Locations
+	 */
+	public Collection<Location> getLocations()
+	{
+		return Collections.unmodifiableCollection(locations.values());
+	}
+	
+	
+	/**
+	 * Gets urls of all items of the World, 
+	 * both in the Locations and collected
+	 * 
+	 * @return ArrayList<String> with item urls
+	 */
+	public ArrayList<String> getAllItemUrls()
+	{
+		ArrayList<String> urls = new ArrayList<String>();
+		if(graph != null) {
+			urls.addAll(graph.getAllItemUrls());
+		}
+		for(Location location: locations.values()) {
+			urls.addAll(location.getItemUrl());
+		}
+		for(Item item: collectedItems.values()) {
+			urls.add(item.getUrl());
+		}
+		return urls;
+	}
+	
+	
 	/**
 	 * Gets view to the left of current one
 	 * in the same Location.
@@ -101,7 +272,24 @@ public class World {
 	 */
 	public String goLeft()
 	{
-		String url = currentLocation.moveLeft();
+		navigation.begin();
+		String url;
+		if(graph != null) {
+			url = cursor.goLeft();
+			record(SessionJournal.LEFT, null);
+			beginViewUpdate();
+			fireForwardChanged();
+			fireViewChanged(url);
+		}
+		else {
+			url = currentLocation.moveLeft();
+			record(SessionJournal.LEFT, null);
+			beginViewUpdate();
+			fireForwardChanged();
+			fireViewChanged();
+		}
+		commitViewUpdate("LEFT");
+		commit("LEFT", url, false);
 		return url;
 	}
 	
@@ -114,7 +302,25 @@ public class World {
 	 */
 	public String goRight()
 	{
-		return currentLocation.moveRight();
+		navigation.begin();
+		String url;
+		if(graph != null) {
+			url = cursor.goRight();
+			record(SessionJournal.RIGHT, null);
+			beginViewUpdate();
+			fireForwardChanged();
+			fireViewChanged(url);
+		}
+		else {
+			url = currentLocation.moveRight();
+			record(SessionJournal.RIGHT, null);
+			beginViewUpdate();
+			fireForwardChanged();
+			fireViewChanged();
+		}
+		commitViewUpdate("RIGHT");
+		commit("RIGHT", url, false);
+		return url;
 	}
 	
 	
@@ -126,27 +332,378 @@ public class World {
 	 */
 	public String goForward()
 	{
+		navigation.begin();
+		if(graph != null) {
+			int previous = cursor.getLocationId();
+			String url = cursor.goForward();
+			record(SessionJournal.FORWARD, null);
+			boolean moved = cursor.getLocationId() != previous;
+			beginViewUpdate();
+			fireLocationChanged(moved);
+			fireViewChanged(url);
+			commitViewUpdate("FORWARD");
+			commit("FORWARD", url, moved);
+			return url;
+		}
 		Location nextLocation = currentLocation.moveForward();
+		boolean changed = nextLocation != currentLocation;
 		currentLocation = nextLocation;// sets new Location as currentLocation
+		record(SessionJournal.FORWARD, null);
+		beginViewUpdate();
+		fireLocationChanged(changed);
 		//Location needs to be entered facing its currentDirection
 		Direction direction = nextLocation.getCurrentDirection();
 		String url = nextLocation.getViews().get(direction);
+		fireViewChanged();
+		commitViewUpdate("FORWARD");
+		commit("FORWARD", url, changed);
+	
+		return url;
+	}
+	
+	
+	/**
+	 * Enters the Location by name, facing the 
+	 * same Direction, without passing the 
+	 * Locations between
+	 * 
+	 * @param name String name of the Location
+	 * @return string url of the image
+	 * @throws IllegalArgumentException if there is no Location with this name
+	 */
+	public String teleport(String name)
+	{
+		if(graph != null) {
+			int id = graph.findLocation(name);
+			if(id < 0) {
+				throw new IllegalArgumentException("Unknown location " + name);
+			}
+			int previous = cursor.getLocationId();
+			String url = cursor.jumpTo(id);
+			record(SessionJournal.TELEPORT, name);
+			beginViewUpdate();
+			fireLocationChanged(id != previous);
+			fireViewChanged(url);
+			commitViewUpdate("TELEPORT");
+			return url;
+		}
+		Location location = locations.get(name);
+		if(location == null) {
+			throw new IllegalArgumentException("Unknown location " + name);
+		}
+		location.setCurrentDirection(currentLocation.getCurrentDirection());
+		boolean changed = location != currentLocation;
+		currentLocation = location;
+		record(SessionJournal.TELEPORT, name);
+		beginViewUpdate();
+		fireLocationChanged(changed);
+		fireViewChanged();
+		commitViewUpdate("TELEPORT");
+		return getCurrentView();
+	}
+	
+	
+	/**
+	 * Finds shortest route from the current view
+	 * to the Location. Steps of the route are 
+	 * followed by goLeft(), goRight() and goForward().
+	 * 
+	 * @param name String name of the target Location
+	 * @return Route or null, if the Location cannot be reached
+	 * @throws IllegalArgumentException if there is no Location with this name
+	 */
+	public Route planRoute(String name)
+	{
+		RoutePlanner planner = getRoutePlanner();
+		int to = routeGraph.findLocation(name);
+		if(to < 0) {
+			throw new IllegalArgumentException("Unknown location " + name);
+		}
+		int from = graph != null ? cursor.getLocationId() : routeGraph.findLocation(currentLocation.getName());
+		return planner.findRoute(from, getCurrentDirection(), to);
+	}
+	
+	
+	/**
+	 * Gets planner of the routes, creating it when
+	 * first needed. Registered Locations are copied
+	 * to a LocationGraph, as they are not changed
+	 * after the World is created.
+	 * 
+	 * @return RoutePlanner
+	 */
+	private synchronized RoutePlanner getRoutePlanner()
+	{
+		if(routePlanner == null) {
+			routeGraph = graph != null ? graph : LocationGraph.of(this);
+			routePlanner = new RoutePlanner(routeGraph);
+		}
+		return routePlanner;
+	}
+	
+	
+	/**
+	 * Gets number of Locations of the World
+	 * 
+	 * @return int number of Locations
+	 */
+	public int getLocationCount()
+	{
+		return graph != null ? graph.size() : locations.size();
+	}
+	
+	
+	/**
+	 * Gets names of all Locations of the World
+	 * 
+	 * @return List<String> names of the Locations
+	 */
+	public List<String> getLocationNames()
+	{
+		if(graph == null) {
+			return new ArrayList<String>(locations.keySet());
+		}
+		ArrayList<String> names = new ArrayList<String>(graph.size());
+		for(int id = 0; id < graph.size(); id++) {
+			names.add(graph.getName(id));
+		}
+		return names;
+	}
+	
+	
+	/**
+	 * Adds listener to be notified
+	 * when current view changes
+	 * 
+	 * @param listener NavigationListener
+	 */
+	public void addNavigationListener(NavigationListener listener)
+	{
+		navigationListeners.add(listener);
+	}
+	
+	
+	/**
+	 * Removes navigation listener
+	 * 
+	 * @param listener NavigationListener
+	 */
+	public void removeNavigationListener(NavigationListener listener)
+	{
+		navigationListeners.remove(listener);
+	}
+	
+	
+	/**
+	 * Adds listener to be notified about 
+	 * changes of the session
+	 * 
+	 * @param listener WorldChangeListener
+	 */
+	public void addWorldChangeListener(WorldChangeListener listener)
+	{
+		forwardAvailable = canMoveForward();
+		changeListeners.add(listener);
+	}
+	
+	
+	/**
+	 * Removes change listener
+	 * 
+	 * @param listener WorldChangeListener
+	 */
+	public void removeWorldChangeListener(WorldChangeListener listener)
+	{
+		changeListeners.remove(listener);
+	}
+	
+	
+	/**
+	 * Notifies change listeners, if moving forward
+	 * became possible or impossible
+	 */
+	private void fireForwardChanged()
+	{
+		if(changeListeners.isEmpty()) {
+			return;
+		}
+		boolean canMove = canMoveForward();
+		if(canMove != forwardAvailable) {
+			forwardAvailable = canMove;
+			for(int i = 0; i < changeListeners.size(); i++) {
+				changeListeners.get(i).forwardChanged(canMove);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Notifies change listeners about the new 
+	 * current Location, if it changed, and about 
+	 * moving forward
+	 * 
+	 * @param changed true if another Location became current
+	 */
+	private void fireLocationChanged(boolean changed)
+	{
+		if(changed && !changeListeners.isEmpty()) {
+			Location location = getCurrentLocation();
+			for(int i = 0; i < changeListeners.size(); i++) {
+				changeListeners.get(i).locationChanged(location);
+			}
+		}
+		fireForwardChanged();
+	}
+	
+	
+	/**
+	 * Notifies change listeners about item moved
+	 * between the current Location and the 
+	 * collected items
+	 * 
+	 * @param location Location which is currently displayed
+	 * @param item Item moved
+	 * @param picked true if item was picked, false if it was put
+	 */
+	private void fireItemMoved(Location location, Item item, boolean picked)
+	{
+		for(int i = 0; i < changeListeners.size(); i++) {
+			WorldChangeListener listener = changeListeners.get(i);
+			if(picked) {
+				listener.itemRemoved(location, item);
+				listener.itemCollected(item);
+			}
+			else {
+				listener.itemAdded(location, item);
+				listener.itemReleased(item);
+			}
+		}
+	}
 	
+	
+	/**
+	 * Notifies listeners about the view of the current
+	 * Location in the graph, materialising the Location
+	 * only if there are listeners
+	 * 
+	 * @param url String url of the current view
+	 * @return url
+	 */
+	private String fireViewChanged(String url)
+	{
+		if(!navigationListeners.isEmpty()) {
+			Location location = getCurrentLocation();
+			for(int i = 0; i < navigationListeners.size(); i++) {
+				navigationListeners.get(i).viewChanged(location, cursor.getDirection());
+			}
+		}
 		return url;
 	}
 	
 	
 	/**
-	 * Gets Location that is set to current
+	 * Notifies listeners about the view
+	 * of the currentLocation
+	 */
+	private void fireViewChanged()
+	{
+		Direction direction = currentLocation.getCurrentDirection();
+		for(int i = 0; i < navigationListeners.size(); i++) {
+			navigationListeners.get(i).viewChanged(currentLocation, direction);
+		}
+	}
+	
+	
+	/**
+	 * Begins Flight Recorder event of the listeners
+	 * updating the view, if there are listeners
+	 */
+	private void beginViewUpdate()
+	{
+		if(!changeListeners.isEmpty() || !navigationListeners.isEmpty()) {
+			viewUpdate.begin();
+		}
+	}
+	
+	
+	/**
+	 * Commits Flight Recorder event of the listeners
+	 * updating the view, if there are listeners and
+	 * the event is recorded
+	 * 
+	 * @param action String command the view was updated after
+	 */
+	private void commitViewUpdate(String action)
+	{
+		if(changeListeners.isEmpty() && navigationListeners.isEmpty()) {
+			return;
+		}
+		viewUpdate.end();
+		if(viewUpdate.shouldCommit()) {
+			viewUpdate.action = action;
+			viewUpdate.location = graph != null ? graph.getName(cursor.getLocationId()) : currentLocation.getName();
+			viewUpdate.direction = getCurrentDirection().name();
+			viewUpdate.items = getItemNames().size();
+			viewUpdate.collectedItems = getCollectedItemNames().size();
+			viewUpdate.commit();
+		}
+	}
+	
+	
+	/**
+	 * Commits Flight Recorder event of a turn or a
+	 * move, if it is recorded, with the new view
+	 * 
+	 * @param action String LEFT, RIGHT or FORWARD
+	 * @param url String url of the new view
+	 * @param moved true if another Location was entered
+	 */
+	private void commit(String action, String url, boolean moved)
+	{
+		navigation.end();
+		if(navigation.shouldCommit()) {
+			navigation.action = action;
+			navigation.location = graph != null ? graph.getName(cursor.getLocationId()) : currentLocation.getName();
+			navigation.direction = getCurrentDirection().name();
+			navigation.url = url;
+			navigation.moved = moved;
+			navigation.commit();
+		}
+	}
+	
+	
+	/**
+	 * Gets Location that is set to current. Locations
+	 * of a graph may be shared by several sessions, so 
+	 * their current Direction is not set, use 
+	 * getCurrentDirection() instead.
 	 * 
 	 * @return  Location currentLocation
 	 */
 	public Location getCurrentLocation()
 	{
+		if(graph != null) {
+			return cursor.getLocation();
+		}
 		return currentLocation;
 	}
 	
 	
+	/**
+	 * Gets Direction the current Location
+	 * is viewed from
+	 * 
+	 * @return Direction
+	 */
+	public Direction getCurrentDirection()
+	{
+		if(graph != null) {
+			return cursor.getDirection();
+		}
+		return currentLocation.getCurrentDirection();
+	}
+	
+	
 	/**
 	 * Gets image representing current view
 	 * of the currentLocation
@@ -155,6 +712,9 @@ public class World {
 	 */
 	public String getCurrentView()
 	{
+		if(graph != null) {
+			return cursor.getCurrentView();
+		}
 		Direction direction = currentLocation.getCurrentDirection();
 		String url = currentLocation.getViews().get(direction);
 		return url;
@@ -169,9 +729,12 @@ public class World {
 	 */
 	public boolean canMoveForward()
 	{
+		if(graph != null) {
+			return cursor.canMoveForward();
+		}
 		Direction neighbour = currentLocation.getCurrentDirection();
 		// checks if current Location has neighbour this direction
-		boolean canMove = currentLocation.getNeighbours().containsKey(neighbour);
+		boolean canMove = currentLocation.hasNeighbour(neighbour);
 		return canMove;
 	}
 	
@@ -179,23 +742,24 @@ public class World {
 	/**
 	 * Gets names of the items, present in current Location
 	 * 
-	 * @return ArrayList<String> with item names
+	 * @return List<String> read-only view of item names
 	 */
-	public ArrayList<String> getItemNames()
+	public List<String> getItemNames()
 	{
-		return currentLocation.getItemNames();
+		return getCurrentLocation().getItemNames();
 	}
 	
 	
 	/**
 	 * Gets names of the collected items
 	 * 
-	 * @return ArrayList with String names of collected items
+	 * @return Collection read-only view of String names of collected items
 	 */
-	public ArrayList<String> getCollectedItemNames()
+	public Collection<String> getCollectedItemNames()
 	{
-		ArrayList<String> collectedItemNames = new ArrayList<String>();
-		collectedItemNames.addAll(collectedItems.keySet());
+		if(graph != null) {
+			return cursor.getCollectedItemNames();
+		}
 		return collectedItemNames;
 	}
 	
@@ -203,11 +767,11 @@ public class World {
 	/**
 	 * Gets urls of the items, present in current Location
 	 * 
-	 * @return ArrayList<String> with item urls
+	 * @return List<String> read-only view of item urls
 	 */
-	public ArrayList<String> getItemUrl()
+	public List<String> getItemUrl()
 	{
-		return currentLocation.getItemUrl();
+		return getCurrentLocation().getItemUrl();
 	}
 	
 	
@@ -215,33 +779,307 @@ public class World {
 	 * Picks item from the location and adds to a collection
 	 * 
 	 * @param itemName String name of the item
+	 * @return true if item was picked, false if it is not in the current Location
 	 */
-	public void pickItem(String itemName)
+	public boolean pickItem(String itemName)
 	{   
-		Item item = currentLocation.getItem(itemName);//Gets names of items present in current location
+		if(graph != null) {
+			if(!cursor.pickItem(itemName)) {
+				return false;
+			}
+			record(SessionJournal.PICK, itemName);
+			beginViewUpdate();
+			fireItemMoved(cursor.getLocation(), cursor.getCollectedItem(itemName), true);
+			commitViewUpdate("PICK");
+			return true;
+		}
+		Item item = takeItem(itemName, currentLocation, this);
 		if(item != null) {
 			collectedItems.put(itemName, item);//Adds to collected items collection
-			currentLocation.removeItem(itemName);//Removes corresponding item from the location
+			record(SessionJournal.PICK, itemName);
+			beginViewUpdate();
+			fireItemMoved(currentLocation, item, true);
+			commitViewUpdate("PICK");
+			return true;
 		}
+		return false;
 		
 	}
 	
 	
+	/**
+	 * Executes batch of commands in one pass, as if
+	 * they were made one by one, so listeners and the
+	 * journal are notified about every change. Records
+	 * of the batch are written to the journal together.
+	 * 
+	 * @param batch CommandBatch of commands
+	 * @return BatchResult with the final view and trace of the commands
+	 */
+	public BatchResult execute(CommandBatch batch)
+	{
+		int size = batch.size();
+		String[] views = new String[size];
+		boolean[] succeeded = new boolean[size];
+		int succeededCount = 0;
+		SessionJournal batchJournal = journal;
+		if(batchJournal != null) {
+			batchJournal.beginBatch();
+		}
+		try {
+			for(int i = 0; i < size; i++) {
+				boolean done = true;
+				switch(batch.getOperation(i)) {
+				    case CommandBatch.LEFT:
+				    	views[i] = goLeft();
+				    	break;
+				    case CommandBatch.RIGHT:
+				    	views[i] = goRight();
+				    	break;
+				    case CommandBatch.FORWARD:
+				    	done = canMoveForward();
+				    	views[i] = goForward();
+				    	break;
+				    case CommandBatch.PICK:
+				    	done = pickItem(batch.getName(i));
+				    	views[i] = getCurrentView();
+				    	break;
+				    default:
+				    	done = putItem(batch.getName(i));
+				    	views[i] = getCurrentView();
+				}
+				succeeded[i] = done;
+				if(done) {
+					succeededCount++;
+				}
+			}
+		}
+		finally {
+			if(batchJournal != null) {
+				batchJournal.endBatch();
+			}
+		}
+		return new BatchResult(views, succeeded, succeededCount, getCurrentView());
+	}
+	
+	
 	/**
 	 * Takes item form collected items collection
-	 * and puts in the current location
+	 * and puts in the current location, if it holds
+	 * less than Location.MAX_ITEMS items
 	 * 
 	 * @param itemName String name of the item
+	 * @return true if item was put, false if it is not collected or Location is full
+	 */
+	public boolean putItem(String itemName)
+	{
+		if(graph != null) {
+			Item item = cursor.getCollectedItem(itemName);
+			if(!cursor.putItem(itemName)) {
+				return false;
+			}
+			record(SessionJournal.PUT, itemName);
+			beginViewUpdate();
+			fireItemMoved(cursor.getLocation(), item, false);
+			commitViewUpdate("PUT");
+			return true;
+		}
+		Item item = collectedItems.get(itemName);
+		if(item != null && placeItem(item, this, currentLocation)) {//Adds to the location
+			collectedItems.remove(itemName, item);//Removes item from the collection
+			record(SessionJournal.PUT, itemName);
+			beginViewUpdate();
+			fireItemMoved(currentLocation, item, false);
+			commitViewUpdate("PUT");
+			return true;
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * Sets journal recording changes of the session
+	 * 
+	 * @param journal SessionJournal or null to stop recording
 	 */
-	public void putItem(String itemName)
+	void setJournal(SessionJournal journal)
 	{
-		if(collectedItems.containsKey(itemName)) {
-		   Item item = collectedItems.get(itemName);
-		   if(item != null) {
-		       currentLocation.addContent(item);//Adds to the location
-		       collectedItems.remove(itemName, item);//Removes item from the collection
-		   }
-	    }
+		this.journal = journal;
+	}
+	
+	
+	/**
+	 * Records change of the session in the journal, 
+	 * if there is one
+	 * 
+	 * @param operation byte operation of SessionJournal
+	 * @param name String name of the item or Location, or null
+	 */
+	private void record(byte operation, String name)
+	{
+		if(journal != null) {
+			journal.record(operation, name);
+		}
+	}
+	
+	
+	/**
+	 * Gets Locations items were put in. Items 
+	 * of the other Locations are where they were
+	 * when the World was created.
+	 * 
+	 * @return LinkedHashSet of Locations
+	 */
+	LinkedHashSet<Location> getChangedLocations()
+	{
+		return itemIndex.getLocations();
+	}
+	
+	
+	/**
+	 * Restores state of the session saved in a snapshot.
+	 * Listed items are taken from where they are and put
+	 * in the order they are listed in, so the Locations 
+	 * hold the same items in the same order. Locations 
+	 * get all their items back, even more than 
+	 * Location.MAX_ITEMS placed by the world file.
+	 * 
+	 * @param locationName String name of the current Location
+	 * @param direction Direction the current Location is viewed from
+	 * @param collected List of names of the collected items
+	 * @param locationNames List of names of Locations of getChangedLocations()
+	 * @param contents List of names of the items in each of the Locations
+	 * @throws IllegalArgumentException if a Location is unknown
+	 */
+	void restore(String locationName, Direction direction, List<String> collected, 
+			List<String> locationNames, List<List<String>> contents)
+	{
+		Object collector = graph != null ? cursor : this;
+		HashMap<String, Item> taken = new HashMap<String, Item>();
+		ArrayList<String> names = new ArrayList<String>(collected);
+		for(List<String> content: contents) {
+			names.addAll(content);
+		}
+		for(String name: names) {
+			Location origin = locateItem(name);
+			Item item = origin == null ? null : takeItem(name, origin, collector);
+			if(item != null) {
+				taken.put(name, item);
+			}
+		}
+		for(int l = 0; l < locationNames.size(); l++) {
+			Location location = getLocation(locationNames.get(l));
+			if(location == null) {
+				throw new IllegalArgumentException("Unknown location " + locationNames.get(l));
+			}
+			for(String name: contents.get(l)) {
+				Item item = taken.remove(name);
+				//Restored items are not limited by Location.MAX_ITEMS, so none is lost
+				if(item != null) {
+					location.addContent(item);
+					itemIndex.place(name, collector, location);
+				}
+			}
+		}
+		for(String name: collected) {
+			Item item = taken.remove(name);
+			if(item != null && graph != null) {
+				cursor.collect(item);
+			}
+			else if(item != null) {
+				collectedItems.put(name, item);
+			}
+		}
+		if(graph != null) {
+			int id = graph.findLocation(locationName);
+			if(id < 0) {
+				throw new IllegalArgumentException("Unknown location " + locationName);
+			}
+			cursor.jumpTo(id);
+			cursor.face(direction);
+		}
+		else {
+			Location location = locations.get(locationName);
+			if(location == null) {
+				throw new IllegalArgumentException("Unknown location " + locationName);
+			}
+			currentLocation = location;
+			location.setCurrentDirection(direction);
+		}
+	}
+	
+	
+	/**
+	 * Removes item from the Location, if it is there.
+	 * Sessions share the items, so the collector first
+	 * becomes owner of the item by compare-and-set in
+	 * the item index. Only the owner removes the item.
+	 * 
+	 * @param itemName String name of the item
+	 * @param location Location the item is taken from
+	 * @param collector World or NavigationCursor picking the item
+	 * @return Item or null, if item is not in the Location
+	 */
+	Item takeItem(String itemName, Location location, Object collector)
+	{
+		//Index tells if the item is in the location without scanning it
+		if(!itemIndex.collect(itemName, location, collector)) {
+			return null;
+		}
+		return location.removeItem(itemName);//Removes item from the location
+	}
+	
+	
+	/**
+	 * Adds collected item to the Location, if it 
+	 * holds less than Location.MAX_ITEMS items. 
+	 * The item is added before the Location becomes 
+	 * its owner, so it can be picked only when it is 
+	 * in the Location.
+	 * 
+	 * @param item Item taken before by takeItem
+	 * @param collector World or NavigationCursor putting the item
+	 * @param location Location the item is put in
+	 * @return true if item was put, false if Location is full
+	 */
+	boolean placeItem(Item item, Object collector, Location location)
+	{
+		if(!location.addContent(item, Location.MAX_ITEMS)) {
+			return false;
+		}
+		if(!itemIndex.place(item.getName(), collector, location)) {
+			//Collector does not own the item
+			location.removeItem(item.getName());
+			return false;
+		}
+		return true;
+	}
+	
+	
+	/**
+	 * Finds Location holding the item
+	 * 
+	 * @param itemName String name of the item
+	 * @return Location or null, if item is collected or there is no such item
+	 */
+	public Location locateItem(String itemName)
+	{
+		return itemIndex.locate(itemName);
+	}
+	
+	
+	/**
+	 * Checks if item is collected
+	 * 
+	 * @param itemName String name of the item
+	 * @return true if item is in the collected items
+	 */
+	public boolean isCollected(String itemName)
+	{
+		if(graph != null) {
+			return cursor.isCollected(itemName);
+		}
+		return collectedItems.containsKey(itemName);
 	}
 	
 	
@@ -252,7 +1090,7 @@ public class World {
 	 */
 	public int getLocationItemNumber()
 	{
-		int number = currentLocation.getLocationContent().size();
+		int number = getCurrentLocation().getLocationContent().size();
 		return number;
 	   
 	}
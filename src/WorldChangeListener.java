@@ -0,0 +1,79 @@
+package model;
+
+/**
+ * Listener interface for receiving fine-grained notifications from World about the changes of
+ * the session, so a view applies only what changed instead of querying World again. Changes of
+ * the displayed view itself are notified to NavigationListeners.
+ *
+ * Methods do nothing by default, so a listener implements only the changes it shows.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface WorldChangeListener {
+
+
+	/**
+	 * Invoked after another Location became current. Items
+	 * of the previous Location are not displayed any more.
+	 *
+	 * @param location Location which is currently displayed
+	 */
+	default void locationChanged(Location location)
+	{
+	}
+
+
+	/**
+	 * Invoked after item was put in the current Location
+	 *
+	 * @param location Location which is currently displayed
+	 * @param item Item added
+	 */
+	default void itemAdded(Location location, Item item)
+	{
+	}
+
+
+	/**
+	 * Invoked after item was picked from the current Location
+	 *
+	 * @param location Location which is currently displayed
+	 * @param item Item removed
+	 */
+	default void itemRemoved(Location location, Item item)
+	{
+	}
+
+
+	/**
+	 * Invoked after item was added to the collected items
+	 *
+	 * @param item Item collected
+	 */
+	default void itemCollected(Item item)
+	{
+	}
+
+
+	/**
+	 * Invoked after item was removed from the collected items
+	 *
+	 * @param item Item put in a Location
+	 */
+	default void itemReleased(Item item)
+	{
+	}
+
+
+	/**
+	 * Invoked after moving forward became possible
+	 * or impossible
+	 *
+	 * @param canMoveForward true if moving forward is possible
+	 */
+	default void forwardChanged(boolean canMoveForward)
+	{
+	}
+
+}
@@ -3,31 +3,116 @@
 
 
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import image.AssetBundle;
+import image.AssetServer;
+import image.SepiaFilter;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.InvalidationListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
+import javafx.util.Duration;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Direction;
+import model.Item;
+import model.Location;
+import model.LocationGraph;
+import model.MappedWorldGraph;
+import model.Route;
+import model.SessionJournal;
 import model.World;
+import model.WorldChangeListener;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
-import javafx.scene.effect.SepiaTone;
 import javafx.scene.image.Image;
 
 /**
  * The Controller class connects model classes with GUI interface. It passes user input commands to the methods defined
- * in the model.
+ * in the model. Changes of the model are applied as they are notified by World, so picking an item changes only
+ * one item view and one menu entry.
  * 
  * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
  * @version 1.0
  *
  */
-public class WorldController {
+public class WorldController implements WorldChangeListener {
+	
+	/**
+	 * System property with path of the asset bundle created by image.AssetPacker
+	 */
+	public static final String BUNDLE_PROPERTY = "viewer.bundle";
+	
+	private static final double SEPIA_LEVEL = 0.7;// Strength of the sepia filter
+	
+	/**
+	 * System property with path of the world file read by the model
+	 */
+	public static final String WORLD_PROPERTY = "viewer.world";
+	
+	/**
+	 * Extension of world graph files written by MappedWorldGraph
+	 */
+	public static final String GRAPH_EXTENSION = ".wgraph";
+	
+	/**
+	 * System property with path of the session journal, see SessionJournal
+	 */
+	public static final String JOURNAL_PROPERTY = "viewer.journal";
+	
+	/**
+	 * System property with port of the AssetServer serving images of the asset bundle
+	 */
+	public static final String SERVER_PROPERTY = "viewer.server";
+	
+	/**
+	 * System property with path of the file all metrics are written to when the viewer is closed
+	 */
+	public static final String METRICS_PROPERTY = "viewer.metrics";
+	
+	private static final LatencyHistogram NAVIGATION_LATENCY = MetricsRegistry.getDefault().histogram("navigation");// Handling a turn or a move
+	
+	private static final Counter PICKS = MetricsRegistry.getDefault().counter("picks");// Items picked
+	
+	private static final Counter PUTS = MetricsRegistry.getDefault().counter("puts");// Items put
+	
+	private static final int GO_TO_LIMIT = 100;// Largest World listing its Locations in the Go To menu
+	
+	private static final double STEP_MILLIS = 400;// Time between steps when following a route
+	
+	World world = createWorld();// Creates the model 
+	
+	private final SessionJournal journal = openJournal(world);// Records the session or null
+	
+	final ImageLoader imageLoader = new ImageLoader();// Decodes location images off the JavaFX thread
+	
+	private final Prefetcher prefetcher = new Prefetcher(imageLoader);// Warms views reachable in one step
+	
+	private final InvalidationListener resizeListener = observable -> resizeView();// Follows display size
 	
-	World world = new World();// Creates the model 
+	private Timeline routeAnimation;// Steps along the route being followed or null
+	
+	private String routeLocation;// Name of the Location the next step of the route starts in
+	
+	private Direction routeDirection;// Direction the next step of the route starts from
+	
+	private AssetServer assetServer;// Serves images to browser clients or null
 	
 	
 	@FXML
@@ -42,6 +127,16 @@ public class WorldController {
 	@FXML
 	private ImageView item3View;// Displays one of three items
 	
+	private ImageView[] itemViews;// Item views in the order items are displayed
+	
+	private String[] shownItems;// Names of the items shown by the item views, null if empty
+	
+	private final HashMap<String, MenuItem> pickMenuItems = new HashMap<String, MenuItem>();// Entries of pickItem Menu by item name
+	
+	private final HashMap<String, MenuItem> putMenuItems = new HashMap<String, MenuItem>();// Entries of putItem Menu by item name
+	
+	private ItemAtlas itemAtlas;// Images of all items packed at startup
+	
 	@FXML
 	private Button left;
 	
@@ -66,6 +161,9 @@ public class WorldController {
 	@FXML
 	private Menu putItem;
 	
+	@FXML
+	private Menu goTo;
+	
 	@FXML
 	private Label maxItems;
 	
@@ -75,16 +173,203 @@ public class WorldController {
 	 */
 	public void initialize() 
 	{   
+		//Reads images from the asset bundle, if one is configured
+		if(imageLoader.getAssetBundle() == null) {
+			openAssetBundle();
+		}
+		//Serves the same images over HTTP, if a port is configured
+		if(assetServer == null) {
+			startAssetServer();
+		}
+		//Measures images held in memory and how often a view is shown without waiting
+		MetricsRegistry.getDefault().gauge("decodedImageBytes", () -> imageLoader.getCache().getSize());
+		MetricsRegistry.getDefault().gauge("cacheHitRatio", ImageLoader::getDisplayHitRatio);
+		//Packs all item images into an atlas once
+		if(itemAtlas == null) {
+			itemViews = new ImageView[] {item1View, item2View, item3View};
+			shownItems = new String[itemViews.length];
+			itemAtlas = ItemAtlas.create(world.getAllItemUrls(), item1View.getFitWidth(), item1View.getFitHeight(),
+					imageLoader.getAssetBundle());
+		}
+		//Decodes images at the size they are displayed at
+		imageLoader.setDisplaySize(imageView.getFitWidth(), imageView.getFitHeight(), imageView.isPreserveRatio());
+		//Prefetches views reachable from the initial one and follows navigation
+		//(listeners are re-added, because initialize is also called by MainProgram)
+		imageView.fitWidthProperty().removeListener(resizeListener);
+		imageView.fitHeightProperty().removeListener(resizeListener);
+		imageView.fitWidthProperty().addListener(resizeListener);
+		imageView.fitHeightProperty().addListener(resizeListener);
+		world.removeNavigationListener(prefetcher);
+		world.addNavigationListener(prefetcher);
+		world.removeWorldChangeListener(this);
+		world.addWorldChangeListener(this);
+		prefetcher.viewChanged(world.getCurrentLocation(), world.getCurrentDirection());
 		//Gets url of location view to be displayed
 		String url = world.getCurrentView();
-        Image image = new Image(url);
-        imageView.setImage(image);
+        imageLoader.display(url, imageView);
         //Updates items and button view
         updateView();
+        //Lists Locations to go to
+        addGoToMenu();
         
 	}
 	
 	
+    /**
+     * Creates the model from the world file set by 
+     * WORLD_PROPERTY or the default World, if there is none.
+     * Files ending with GRAPH_EXTENSION are memory-mapped
+     * world graphs, other files are text world files
+     * which are converted to a LocationGraph
+     * 
+     * @return World
+     */
+    private static World createWorld()
+    {
+    	String path = System.getProperty(WORLD_PROPERTY);
+    	if(path != null && path.endsWith(GRAPH_EXTENSION)) {
+    		try {
+    			return new World(MappedWorldGraph.open(Paths.get(path)));
+    		}
+    		catch(IOException | IllegalArgumentException e) {
+    			Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not open world graph " + path, e);
+    		}
+    	}
+    	else if(path != null) {
+    		try(Reader source = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+    			//Large worlds are navigated over the compact array-backed graph
+    			return new World(LocationGraph.of(new World(source)));
+    		}
+    		catch(IOException | IllegalArgumentException e) {
+    			Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not read world file " + path, e);
+    		}
+    	}
+    	return new World();
+    }
+    
+    
+    /**
+     * Opens session journal set by JOURNAL_PROPERTY,
+     * resuming the session recorded in it
+     * 
+     * @param world World just created
+     * @return SessionJournal or null, if there is none
+     */
+    private static SessionJournal openJournal(World world)
+    {
+    	String path = System.getProperty(JOURNAL_PROPERTY);
+    	if(path == null) {
+    		return null;
+    	}
+    	try {
+    		return SessionJournal.open(Paths.get(path), world);
+    	}
+    	catch(IOException | IllegalArgumentException e) {
+    		//Session starts from the beginning and is not recorded
+    		Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not open session journal " + path, e);
+    		return null;
+    	}
+    }
+    
+    
+    /**
+     * Stops the asset server, writes metrics to the file set by
+     * METRICS_PROPERTY and saves snapshot of the session, if it
+     * is recorded, so it resumes without replaying the journal
+     */
+    public void close()
+    {
+    	if(assetServer != null) {
+    		assetServer.stop();
+    	}
+    	String metricsFile = System.getProperty(METRICS_PROPERTY);
+    	if(metricsFile != null) {
+    		try {
+    			MetricsRegistry.getDefault().dump(Paths.get(metricsFile));
+    		}
+    		catch(IOException e) {
+    			Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not write metrics to " + metricsFile, e);
+    		}
+    	}
+    	if(journal == null) {
+    		return;
+    	}
+    	try {
+    		journal.close();
+    	}
+    	catch(IOException e) {
+    		Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not close session journal", e);
+    	}
+    }
+    
+    
+    /**
+     * Opens asset bundle set by BUNDLE_PROPERTY
+     * and passes it to the image loader
+     */
+    private void openAssetBundle()
+    {
+    	String path = System.getProperty(BUNDLE_PROPERTY);
+    	if(path == null) {
+    		return;
+    	}
+    	try {
+    		imageLoader.setAssetBundle(AssetBundle.open(Paths.get(path)));
+    	}
+    	catch(IOException e) {
+    		//Images are still loaded by url
+    		Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not open asset bundle " + path, e);
+    	}
+    }
+    
+    
+    /**
+     * Starts asset server on the port set by SERVER_PROPERTY,
+     * serving the images of the asset bundle
+     */
+    private void startAssetServer()
+    {
+    	String port = System.getProperty(SERVER_PROPERTY);
+    	if(port == null) {
+    		return;
+    	}
+    	if(imageLoader.getAssetBundle() == null) {
+    		Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Asset server needs an asset bundle, set " + BUNDLE_PROPERTY);
+    		return;
+    	}
+    	try {
+    		assetServer = AssetServer.start(imageLoader.getAssetBundle(), Integer.parseInt(port));
+    	}
+    	catch(IOException | NumberFormatException e) {
+    		//Images are still displayed by the viewer
+    		Logger.getLogger(WorldController.class.getName()).log(Level.WARNING, "Could not start asset server on port " + port, e);
+    	}
+    }
+    
+    
+    /**
+     * Decodes current view and views reachable from it
+     * again, if display size changed past the threshold
+     */
+    private void resizeView()
+    {
+    	if(imageLoader.setDisplaySize(imageView.getFitWidth(), imageView.getFitHeight(), imageView.isPreserveRatio())) {
+    		reloadView();
+    	}
+    }
+    
+    
+    /**
+     * Loads current view and views reachable from it
+     * again, after the way images are decoded changed
+     */
+    private void reloadView()
+    {
+    	prefetcher.viewChanged(world.getCurrentLocation(), world.getCurrentDirection());
+    	imageLoader.display(world.getCurrentView(), imageView);
+    }
+    
+    
     /**
      * Shows image to the left of current view
      * 
@@ -92,12 +377,15 @@ public class WorldController {
      */
     public void goLeft(ActionEvent event) {
           
+    	  //A button click takes over from the route being followed
+    	  if(event != null) {
+    		  stopRoute();
+    	  }
+    	  long start = System.nanoTime();
     	  //Gets url of location view to be displayed
           String viewNow = world.goLeft();
-          Image image = new Image(viewNow);
-          imageView.setImage(image);
-          //indicates that moving forward is possible
-          canGoForward();
+          imageLoader.display(viewNow, imageView);
+          NAVIGATION_LATENCY.recordSince(start);
           
     }
     
@@ -109,12 +397,15 @@ public class WorldController {
      */
     public void goRight(ActionEvent event) {
         
+    	//A button click takes over from the route being followed
+    	if(event != null) {
+    		stopRoute();
+    	}
+    	long start = System.nanoTime();
     	//Gets url of location view to be displayed
         String viewNow = world.goRight();
-        Image image = new Image(viewNow);
-        imageView.setImage(image);
-        //indicates that moving forward is possible
-        canGoForward();
+        imageLoader.display(viewNow, imageView);
+        NAVIGATION_LATENCY.recordSince(start);
 
   }
     
@@ -128,13 +419,16 @@ public class WorldController {
     public void goForward(ActionEvent event) 
     {
         
+    	//A button click takes over from the route being followed
+    	if(event != null) {
+    		stopRoute();
+    	}
+    	long start = System.nanoTime();
     	//Gets url of location view to be displayed
         String viewNow = world.goForward();
-        //Creates image using give path
-        Image image = new Image(viewNow);
-        imageView.setImage(image);
-        //Updates item and button views
-        updateView();
+        //Decodes image using given path in the background
+        imageLoader.display(viewNow, imageView);
+        NAVIGATION_LATENCY.recordSince(start);
        
     }
   
@@ -150,15 +444,39 @@ public class WorldController {
     	//creates menu items corresponding to items present in the Location
     	if(!itemNames.isEmpty()) {
     	    for (String itemName: itemNames) {
-    	
-		        MenuItem menuItem = new MenuItem(itemName);
-		        menuItem.setOnAction(e-> handlePickItem(itemName));
-    	        pickItem.getItems().add(menuItem);
-    	      
+    	    	addPickMenuItem(itemName);
     	    }
     	}
     }
     
+    
+    /**
+     * Adds menuItem of the item to pickItem Menu
+     * 
+     * @param itemName String name of an item
+     */
+    private void addPickMenuItem(String itemName)
+    {
+    	MenuItem menuItem = new MenuItem(itemName);
+    	menuItem.setOnAction(e-> handlePickItem(itemName));
+    	pickItem.getItems().add(menuItem);
+    	pickMenuItems.put(itemName, menuItem);
+    }
+    
+    
+    /**
+     * Adds menuItem of the item to putItem Menu
+     * 
+     * @param itemName String name of an item
+     */
+    private void addPutMenuItem(String itemName)
+    {
+    	MenuItem menuItem = new MenuItem(itemName);
+    	menuItem.setOnAction(e-> handlePutItem(itemName));
+    	putItem.getItems().add(menuItem);
+    	putMenuItems.put(itemName, menuItem);
+    }
+    
     /**
      * Dynamically adds menuItems to putItem Menu
      */
@@ -170,25 +488,123 @@ public class WorldController {
     	//Creates menu items corresponding to picked items
     	if(!itemNames.isEmpty()) {
     	    for (String itemName: itemNames) {
-    	
-		        MenuItem menuItem = new MenuItem(itemName);
-		        menuItem.setOnAction(e-> handlePutItem(itemName));
-		        putItem.getItems().add(menuItem);
-    	        
+    	    	addPutMenuItem(itemName);
     	    }
     	} 
     }
     
     
+    /**
+     * Adds menuItems for all Locations to goTo Menu,
+     * if the World is small enough to list them
+     */
+    private void addGoToMenu()
+    {
+    	goTo.getItems().clear();
+    	if(world.getLocationCount() > GO_TO_LIMIT) {
+    		goTo.setDisable(true);
+    		return;
+    	}
+    	List<String> names = world.getLocationNames();
+    	names.sort(null);
+    	for(String name: names) {
+    		MenuItem menuItem = new MenuItem(name);
+    		menuItem.setOnAction(e-> handleGoTo(name));
+    		goTo.getItems().add(menuItem);
+    	}
+    }
+    
+    
+    /**
+     * Follows shortest route to the Location step by
+     * step, or jumps to it, if it cannot be reached
+     * 
+     * @param name String name of the Location
+     */
+    void handleGoTo(String name)
+    {
+    	stopRoute();
+    	Route route = world.planRoute(name);
+    	if(route == null) {
+    		imageLoader.display(world.teleport(name), imageView);
+    		return;
+    	}
+    	//Plays steps of the route as if the buttons were pressed
+    	String steps = route.getSteps();
+    	Timeline animation = new Timeline();
+    	for(int i = 0; i < steps.length(); i++) {
+    		char step = steps.charAt(i);
+    		animation.getKeyFrames().add(new KeyFrame(Duration.millis(STEP_MILLIS * (i + 1)), e-> takeStep(step, name)));
+    	}
+    	animation.setOnFinished(e-> routeAnimation = null);
+    	routeAnimation = animation;
+    	markRoutePosition();
+    	animation.play();
+    }
+    
+    
+    /**
+     * Takes one step of the route being followed, or jumps to
+     * its end, if the view was changed since the last step
+     * 
+     * @param step char L, R or F of the step to take
+     * @param name String name of the Location the route leads to
+     */
+    private void takeStep(char step, String name)
+    {
+    	//The steps are relative, so they only lead to the Location from where the route left off
+    	if(!world.getCurrentLocation().getName().equals(routeLocation)
+    			|| world.getCurrentDirection() != routeDirection) {
+    		stopRoute();
+    		imageLoader.display(world.teleport(name), imageView);
+    		return;
+    	}
+    	if(step == 'L') {
+    		goLeft(null);
+    	}
+    	else if(step == 'R') {
+    		goRight(null);
+    	}
+    	else {
+    		goForward(null);
+    	}
+    	markRoutePosition();
+    }
+    
+    
+    /**
+     * Remembers the view the next step of the route starts from
+     */
+    private void markRoutePosition()
+    {
+    	routeLocation = world.getCurrentLocation().getName();
+    	routeDirection = world.getCurrentDirection();
+    }
+    
+    
+    /**
+     * Stops following the route, if there is one
+     */
+    private void stopRoute()
+    {
+    	if(routeAnimation != null) {
+    		routeAnimation.stop();
+    		routeAnimation = null;
+    	}
+    }
+    
+    
     /**
      * Picks items from current Location
      * 
      * @param itemName String name of an item
      */
-    private void handlePickItem(String itemName)
+    void handlePickItem(String itemName)
     {
-    	world.pickItem(itemName);
-    	updateView();//Updates visible items
+    	//World notifies the item view and menus to be changed
+    	if(world.pickItem(itemName)) {
+    		PICKS.increment();
+    	}
     	
     }
     
@@ -197,19 +613,114 @@ public class WorldController {
      * 
      * @param itemName String name of an item
      */
-    private void handlePutItem(String itemName)
+    void handlePutItem(String itemName)
     {   
-    	//Checks if maximum items number per Location is exceeded
-    	if(world.getLocationItemNumber()<3) {
-    	    world.putItem(itemName);
-    	    updateView();//updates visible items
+    	//Model refuses the item if maximum items number per Location is reached
+    	if(!world.putItem(itemName)) {
+    		maxItems.setVisible(true);//Displays message that Location is full
     	}
     	else {
-    		maxItems.setVisible(true);//Displays message that Location is full
+    		PUTS.increment();
     	}
     }
     
     
+    /**
+     * Shows items and pickItem Menu of the 
+     * new current Location
+     * 
+     * @param location Location which is currently displayed
+     */
+    @Override
+    public void locationChanged(Location location)
+    {
+    	updateItemsViews();
+    	pickItem.getItems().clear();
+    	pickMenuItems.clear();
+    	addPickItemMenu();
+    	maxItems.setVisible(false);
+    }
+    
+    
+    /**
+     * Shows item put in the current Location
+     * in an empty item view
+     * 
+     * @param location Location which is currently displayed
+     * @param item Item added
+     */
+    @Override
+    public void itemAdded(Location location, Item item)
+    {
+    	for(int i = 0; i < itemViews.length; i++) {
+    		if(shownItems[i] == null) {
+    			showItem(i, item);
+    			break;
+    		}
+    	}
+    	addPickMenuItem(item.getName());
+    }
+    
+    
+    /**
+     * Clears item view of the item picked 
+     * from the current Location
+     * 
+     * @param location Location which is currently displayed
+     * @param item Item removed
+     */
+    @Override
+    public void itemRemoved(Location location, Item item)
+    {
+    	for(int i = 0; i < itemViews.length; i++) {
+    		if(item.getName().equals(shownItems[i])) {
+    			shownItems[i] = null;
+    			itemViews[i].setImage(null);
+    			break;
+    		}
+    	}
+    	pickItem.getItems().remove(pickMenuItems.remove(item.getName()));
+    }
+    
+    
+    /**
+     * Adds collected item to putItem Menu
+     * 
+     * @param item Item collected
+     */
+    @Override
+    public void itemCollected(Item item)
+    {
+    	addPutMenuItem(item.getName());
+    }
+    
+    
+    /**
+     * Removes item put in a Location
+     * from putItem Menu
+     * 
+     * @param item Item put
+     */
+    @Override
+    public void itemReleased(Item item)
+    {
+    	putItem.getItems().remove(putMenuItems.remove(item.getName()));
+    	maxItems.setVisible(false);
+    }
+    
+    
+    /**
+     * Updates Forward button view and Label
+     * 
+     * @param canMoveForward true if moving forward is possible
+     */
+    @Override
+    public void forwardChanged(boolean canMoveForward)
+    {
+    	showForward(canMoveForward);
+    }
+    
+    
     /**
      * Updates item views, creates
      * Menu item lists, updates buttons
@@ -220,12 +731,7 @@ public class WorldController {
     {
     	//Updates item views 
     	
-    	//Clears Item views
-    	item1View.setImage(null);
-    	item2View.setImage(null);
-    	item3View.setImage(null);
-    	
-    	//Creates item views 
+    	//Shows items of the Location 
     	updateItemsViews();
     	
     	
@@ -234,6 +740,8 @@ public class WorldController {
     	//Empties menus
     	pickItem.getItems().clear();
     	putItem.getItems().clear();
+    	pickMenuItems.clear();
+    	putMenuItems.clear();
     	
     	//Adds PickItem Menu items
     	addPickItemMenu();
@@ -250,64 +758,85 @@ public class WorldController {
     }
     
     /**
-     * Displays items in the locations 
+     * Displays items in the locations using
+     * their viewports in the item atlas
      */
     public void updateItemsViews() 
     {
-    	//Creates Set of image views for the items
-    	ArrayList<ImageView> itemViews = new ArrayList<ImageView>();
-    	itemViews.add(item1View);
-    	itemViews.add(item2View);
-    	itemViews.add(item3View);
-    	
-    	//Creates a copy of ArrayList with image urls from the Location
-    	ArrayList<String> itemsUrls = new ArrayList<String>();
-    	itemsUrls.addAll(world.getItemUrl());
+    	//Gets items in the Location
+    	List<Item> items = world.getCurrentLocation().getLocationContent();
        
-    	//Iterates through ImageViews
-        for(ImageView view:itemViews) {
-        	//Iterates through item urls
-        	Iterator<String> it = itemsUrls.iterator();
-        	if(it.hasNext()) {
-        		
-        		String itemUrl = it.next();
-        		//Creates an image with provided path
-        		Image image = new Image(itemUrl);
-        		view.setImage(image);//Sets image on one of ImageViews
-        		//Removes item url that is already used from the set
-        		it.remove();
+    	//Shows one item on every ImageView, the rest are cleared
+        for(int i = 0; i < itemViews.length; i++) {
+        	if(i < items.size()) {
+        		showItem(i, items.get(i));
+        	}
+        	else {
+        		shownItems[i] = null;
+        		itemViews[i].setImage(null);
         	}
-        	    
         }
     	
     }
     
     
+    /**
+     * Displays item on an item view
+     * 
+     * @param index int index of the item view
+     * @param item Item to be displayed
+     */
+    private void showItem(int index, Item item)
+    {
+    	ImageView view = itemViews[index];
+    	shownItems[index] = item.getName();
+    	//Items added after the atlas was created are loaded directly
+    	if(!itemAtlas.show(item.getUrl(), view)) {
+    		view.setViewport(null);
+    		view.setImage(new Image(item.getUrl()));
+    	}
+    }
+    
+    
     /**
      * Indicates that moving forward is possible
      */
     private void canGoForward()
+    {
+    	showForward(world.canMoveForward());
+    }
+    
+    
+    /**
+     * Shows text "go!" and enables Forward button
+     * if moving forward is possible
+     * 
+     * @param canMoveForward true if moving forward is possible
+     */
+    private void showForward(boolean canMoveForward)
     {
     	//Shows text "go!" if moving forward is possible in current direction
-        if(world.canMoveForward()) {
+        if(canMoveForward) {
             go.setText("GO!");
             forward.setDisable(false);
         }
         //If moving to next location is impossible, the button is disabled
-        else if(!world.canMoveForward()) {
+        else {
             go.setText("");
             forward.setDisable(true);
         }
     }
     
     /**
-	 * Adds sepia effect to imageView
+	 * Adds sepia filter to location images. The filter is applied
+	 * to the pixels of decoded images once, instead of as an effect
+	 * rendered on every repaint.
 	 */
 	public void applySepia()
 	{
-		SepiaTone sepiaTone = new SepiaTone();
-        sepiaTone.setLevel(0.7);
-        imageView.setEffect(sepiaTone);
+		if(imageLoader.setFilter(new SepiaFilter(SEPIA_LEVEL))) {
+			reloadView();
+		}
 	}
     
     
@@ -0,0 +1,128 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * Graph of Locations identified by int ids from 0 to size() - 1. Views and neighbours
+ * can be read by id without creating Location objects, so World navigates a graph
+ * without touching Locations. Location objects are materialised only when their items
+ * are needed or when they are passed to listeners.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+public interface WorldGraph {
+
+
+	/**
+	 * Gets number of Locations
+	 *
+	 * @return int number of Locations
+	 */
+	int size();
+
+
+	/**
+	 * Gets id of the start Location
+	 *
+	 * @return int id
+	 */
+	int getStartId();
+
+
+	/**
+	 * Gets name of the Location
+	 *
+	 * @param id int id of the Location
+	 * @return String name
+	 */
+	String getName(int id);
+
+
+	/**
+	 * Gets view of the Location
+	 *
+	 * @param id int id of the Location
+	 * @param direction Direction of the view
+	 * @return String image url
+	 */
+	String getView(int id, Direction direction);
+
+
+	/**
+	 * Gets neighbour of the Location
+	 *
+	 * @param id int id of the Location
+	 * @param direction Direction of the neighbour
+	 * @return int id of the neighbour or -1, if there is none
+	 */
+	int getNeighbour(int id, Direction direction);
+
+
+	/**
+	 * Checks if there is a neighbour
+	 * set on given Direction
+	 *
+	 * @param id int id of the Location
+	 * @param direction Direction NORTH, SOUTH, WEST or EAST
+	 * @return true if moving forward in this Direction is possible
+	 */
+	boolean hasNeighbour(int id, Direction direction);
+
+
+	/**
+	 * Gets Location, materialising it if needed. The same
+	 * Location is returned while it holds changed items.
+	 *
+	 * @param id int id of the Location
+	 * @return Location
+	 */
+	Location getLocation(int id);
+
+
+	/**
+	 * Keeps Location materialised while a session is in it, so
+	 * its items are changed in the Location getLocation() returns
+	 * to all sessions. Every hold is ended by release().
+	 *
+	 * @param id int id of the Location
+	 */
+	void hold(int id);
+
+
+	/**
+	 * Ends hold of the Location
+	 *
+	 * @param id int id of the Location held
+	 */
+	void release(int id);
+
+
+	/**
+	 * Finds Location by name
+	 *
+	 * @param name String name of the Location
+	 * @return int id or -1, if there is no Location with this name
+	 */
+	int findLocation(String name);
+
+
+	/**
+	 * Finds Location the item was placed in by the graph.
+	 * Items moved later are tracked by the World.
+	 *
+	 * @param itemName String name of the item
+	 * @return int id of the Location or -1, if the graph has no such item
+	 */
+	int findItem(String itemName);
+
+
+	/**
+	 * Gets distinct urls of the items
+	 * placed in the Locations of the graph
+	 *
+	 * @return ArrayList<String> with item urls
+	 */
+	ArrayList<String> getAllItemUrls();
+
+}
@@ -0,0 +1,183 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+
+/**
+ * WorldReader builds a World from a world file in a single pass, line by line, without reading the
+ * whole file into memory. Every line holds one definition with fields separated by tabs:
+ * 
+ * location	name	northUrl	southUrl	westUrl	eastUrl
+ * neighbour	name	direction	neighbourName
+ * item	locationName	itemName	itemUrl
+ * start	name
+ * 
+ * Empty lines and lines starting with # are ignored. Location has to be defined before it is 
+ * used by other definitions. Adding a neighbour links both Locations, as Location.addNeighbour 
+ * does. If there is no start line, the first Location is the start.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ */
+class WorldReader {
+	
+	private static final int MAX_FIELDS = 6; // number of fields of the longest definition
+	
+	
+	/**
+	 * Private constructor, class has only static methods
+	 */
+	private WorldReader()
+	{
+	}
+	
+	
+	/**
+	 * Reads world file and adds its Locations to the World
+	 * 
+	 * @param source Reader of the world file
+	 * @param world World to be filled
+	 * @throws IOException if world file cannot be read
+	 * @throws IllegalArgumentException if world file is invalid
+	 */
+	static void read(Reader source, World world) throws IOException
+	{
+		BufferedReader in = new BufferedReader(source, 1 << 16);
+		String[] fields = new String[MAX_FIELDS];
+		Location first = null;
+		Location start = null;
+		int lineNumber = 0;
+		String line;
+		while((line = in.readLine()) != null) {
+			lineNumber++;
+			if(line.isEmpty() || line.charAt(0) == '#') {
+				continue;
+			}
+			int count = split(line, fields);
+			try {
+				switch(fields[0]) {
+				    case "location":
+				    	checkFields(count, 6);
+				    	HashMap<Direction, String> views = new HashMap<Direction, String>(8);
+				    	views.put(Direction.NORTH, fields[2]);
+				    	views.put(Direction.SOUTH, fields[3]);
+				    	views.put(Direction.WEST, fields[4]);
+				    	views.put(Direction.EAST, fields[5]);
+				    	Location location = new Location(fields[1], views);
+				    	world.addLocation(location);
+				    	if(first == null) {
+				    		first = location;
+				    	}
+				    	break;
+				    case "neighbour":
+				    	checkFields(count, 4);
+				    	addNeighbour(getLocation(world, fields[1]), getLocation(world, fields[3]), 
+				    			Direction.valueOf(fields[2]));
+				    	break;
+				    case "item":
+				    	checkFields(count, 4);
+				    	getLocation(world, fields[1]).addContent(new Item(fields[2], fields[3]));
+				    	break;
+				    case "start":
+				    	checkFields(count, 2);
+				    	start = getLocation(world, fields[1]);
+				    	break;
+				    default:
+				    	throw new IllegalArgumentException("Unknown definition " + fields[0]);
+				}
+			}
+			catch(IllegalArgumentException e) {
+				throw new IllegalArgumentException("World file line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+		if(first == null) {
+			throw new IllegalArgumentException("World file has no locations");
+		}
+		world.setCurrentLocation(start != null ? start : first);
+	}
+	
+	
+	/**
+	 * Links Locations both ways. A side which is already linked
+	 * to another Location is not relinked, as the Location linked
+	 * before would still lead back, so the links would not match.
+	 * 
+	 * @param location Location the neighbour is added to
+	 * @param neighbour Location to be added
+	 * @param direction Direction of the neighbour
+	 * @throws IllegalArgumentException if either side is already linked to another Location
+	 */
+	private static void addNeighbour(Location location, Location neighbour, Direction direction)
+	{
+		Location linked = location.getNeighbours().get(direction);
+		Location linkedBack = neighbour.getNeighbours().get(direction.getOpposite());
+		if((linked != null && linked != neighbour) || (linkedBack != null && linkedBack != location)) {
+			throw new IllegalArgumentException("Neighbour " + direction + " of " + location.getName() 
+					+ " or " + direction.getOpposite() + " of " + neighbour.getName() + " is already defined");
+		}
+		location.addNeighbour(neighbour, direction);
+	}
+	
+	
+	/**
+	 * Splits line into tab separated fields
+	 * 
+	 * @param line String line of the world file
+	 * @param fields String[] array to be filled with fields
+	 * @return int number of fields
+	 * @throws IllegalArgumentException if line has too many fields
+	 */
+	private static int split(String line, String[] fields)
+	{
+		int count = 0;
+		int from = 0;
+		while(true) {
+			int tab = line.indexOf('\t', from);
+			if(count == fields.length) {
+				throw new IllegalArgumentException("Too many fields in line " + line);
+			}
+			if(tab < 0) {
+				fields[count++] = line.substring(from);
+				return count;
+			}
+			fields[count++] = line.substring(from, tab);
+			from = tab + 1;
+		}
+	}
+	
+	
+	/**
+	 * Checks number of fields of a definition
+	 * 
+	 * @param count int number of fields in the line
+	 * @param expected int number of fields of the definition
+	 * @throws IllegalArgumentException if numbers differ
+	 */
+	private static void checkFields(int count, int expected)
+	{
+		if(count != expected) {
+			throw new IllegalArgumentException("Expected " + expected + " fields, found " + count);
+		}
+	}
+	
+	
+	/**
+	 * Gets Location which has already been defined
+	 * 
+	 * @param world World being read
+	 * @param name String name of the Location
+	 * @return Location
+	 * @throws IllegalArgumentException if Location is not defined
+	 */
+	private static Location getLocation(World world, String name)
+	{
+		Location location = world.getLocation(name);
+		if(location == null) {
+			throw new IllegalArgumentException("Unknown location " + name);
+		}
+		return location;
+	}
+
+}
@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+import image.ByteBudgetCache;
+
+/**
+ * A test class for the ByteBudgetCache class.
+ * The tests are performed to check if least recently used values are evicted 
+ * when the byte budget is exceeded and if cache statistics are counted properly.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class ByteBudgetCacheTest {
+
+	/**
+	 * Tests if least recently used value is evicted
+	 * when size of the values exceeds the budget
+	 */
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		
+		ByteBudgetCache<String, byte[]> cache = new ByteBudgetCache<String, byte[]>(10, value -> value.length);
+		cache.put("north", new byte[4]);
+		cache.put("south", new byte[4]);
+		cache.get("north"); // south becomes least recently used
+		cache.put("east", new byte[4]);
+		
+		assertNotNull(cache.get("north"));
+		assertNull(cache.get("south"));
+		assertNotNull(cache.get("east"));
+		assertEquals(8, cache.getSize());
+		assertEquals(1, cache.getEvictions());
+	}
+	
+	
+	/**
+	 * Tests if a value larger than the whole budget
+	 * is not cached and does not evict other values
+	 */
+	@Test
+	public void ignoresOversizedValue() {
+		
+		ByteBudgetCache<String, byte[]> cache = new ByteBudgetCache<String, byte[]>(10, value -> value.length);
+		cache.put("north", new byte[4]);
+		cache.put("panorama", new byte[11]);
+		
+		assertNull(cache.get("panorama"));
+		assertNotNull(cache.get("north"));
+		assertEquals(4, cache.getSize());
+	}
+	
+	
+	/**
+	 * Tests if hits and misses are counted
+	 */
+	@Test
+	public void countsHitsAndMisses() {
+		
+		ByteBudgetCache<String, byte[]> cache = new ByteBudgetCache<String, byte[]>(10, value -> value.length);
+		cache.put("north", new byte[4]);
+		cache.get("north");
+		cache.get("west");
+		
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+}
@@ -0,0 +1,65 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+import model.BatchResult;
+import model.CommandBatch;
+import model.LocationGraph;
+import model.World;
+
+/**
+ * A test class for the CommandBatch.
+ * The tests are performed to check if batches are parsed and executed by World the same
+ * way as the commands made one by one.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class CommandBatchTest {
+
+	/**
+	 * Tests if batch is parsed and written
+	 * back to the same commands
+	 */
+	@Test
+	public void parseTest() {
+
+		CommandBatch batch = CommandBatch.parse("F PICK(Sarbievijus), RF; PUT(Sarbievijus) LL");
+		assertEquals(7, batch.size());
+		assertEquals("F PICK(Sarbievijus) RF PUT(Sarbievijus) LL", batch.toString());
+		assertEquals(batch.toString(), CommandBatch.parse(batch.toString()).toString());
+		try {
+			CommandBatch.parse("FX");
+			fail("Invalid command is accepted");
+		}
+		catch(IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+
+	/**
+	 * Tests if trace and final state are the same
+	 * as when commands are made one by one
+	 */
+	@Test
+	public void executeTest() {
+
+		for(World world: new World[] {new World(), new World(LocationGraph.of(new World()))}) {
+			BatchResult result = world.execute(CommandBatch.parse("F PICK(Sarbievijus) PICK(Basket) RF PUT(Sarbievijus) LLF"));
+			assertEquals(9, result.size());
+			assertFalse(result.isSucceeded(2));
+			assertEquals(8, result.getSucceededCount());
+			assertEquals("sarbievijusEast.jpg", result.getView(3));
+			assertEquals("pSkargaEast.jpg", result.getView(4));
+			assertEquals("sarbievijusWest.jpg", result.getFinalView());
+			assertEquals(world.getCurrentView(), result.getFinalView());
+			assertTrue(world.getLocation("pSkarga").getItemNames().contains("Sarbievijus"));
+			assertTrue(world.getCollectedItemNames().isEmpty());
+		}
+	}
+
+}
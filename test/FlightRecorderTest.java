@@ -0,0 +1,90 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import image.FilterPipeline;
+import image.SepiaFilter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import model.LocationGraph;
+import model.World;
+import model.WorldChangeListener;
+
+/**
+ * A test class for the Flight Recorder events of the viewer.
+ * The tests are performed to check if turns, moves, view updates 
+ * and filters are recorded with the Location, Direction and image size.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class FlightRecorderTest {
+
+	/**
+	 * Tests if every turn and move of a graph World,
+	 * updates of its listeners and a filter are recorded
+	 */
+	@Test
+	public void recordingTest() throws Exception {
+		
+		Path file = Files.createTempFile("viewer", ".jfr");
+		try(Recording recording = new Recording()) {
+			recording.enable("viewer.Navigation");
+			recording.enable("viewer.Filter");
+			recording.enable("viewer.ViewUpdate");
+			recording.start();
+			World world = new World(LocationGraph.of(new World()));
+			world.addWorldChangeListener(new WorldChangeListener() {});
+			world.pickItem("Basket");
+			world.goForward();
+			world.goLeft();
+			world.goRight();
+			new FilterPipeline().apply(new SepiaFilter(0.7), new int[40 * 30], 40, 30);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> navigation = new ArrayList<RecordedEvent>();
+		List<RecordedEvent> viewUpdates = new ArrayList<RecordedEvent>();
+		RecordedEvent filter = null;
+		for(RecordedEvent event: RecordingFile.readAllEvents(file)) {
+			if(event.getEventType().getName().equals("viewer.Navigation")) {
+				navigation.add(event);
+			}
+			else if(event.getEventType().getName().equals("viewer.ViewUpdate")) {
+				viewUpdates.add(event);
+			}
+			else if(event.getEventType().getName().equals("viewer.Filter")) {
+				filter = event;
+			}
+		}
+		Files.delete(file);
+		
+		assertEquals(3, navigation.size());
+		assertEquals("FORWARD", navigation.get(0).getString("action"));
+		assertEquals("sarbievijus", navigation.get(0).getString("location"));
+		assertTrue(navigation.get(0).getBoolean("moved"));
+		assertEquals("LEFT", navigation.get(1).getString("action"));
+		assertEquals("WEST", navigation.get(1).getString("direction"));
+		assertEquals("sarbievijusNorth.jpg", navigation.get(2).getString("url"));
+		assertEquals(4, viewUpdates.size());
+		assertEquals("PICK", viewUpdates.get(0).getString("action"));
+		assertEquals("FORWARD", viewUpdates.get(1).getString("action"));
+		assertEquals("sarbievijus", viewUpdates.get(1).getString("location"));
+		assertEquals(1, viewUpdates.get(1).getInt("collectedItems"));
+		assertEquals("LEFT", viewUpdates.get(2).getString("action"));
+		assertEquals("WEST", viewUpdates.get(2).getString("direction"));
+		assertEquals("RIGHT", viewUpdates.get(3).getString("action"));
+		assertNotNull(filter);
+		assertEquals(40 * 30 * 4, filter.getLong("bytes"));
+	}
+
+}
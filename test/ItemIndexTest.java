@@ -0,0 +1,88 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import model.LocationGraph;
+import model.MappedWorldGraph;
+import model.World;
+
+/**
+ * A test class for finding items in the World.
+ * The tests are performed to check if the Location of an item follows picking and putting it,
+ * for registered Locations and for the graphs.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class ItemIndexTest {
+
+	/**
+	 * Tests if item is found in the Location
+	 * it was placed in, picked and put in
+	 */
+	@Test
+	public void locateTest() throws IOException {
+
+		Path file = Files.createTempFile("world", ".wgraph");
+		try {
+			MappedWorldGraph.write(new World(), file);
+			World[] worlds = {new World(), new World(LocationGraph.of(new World())),
+					new World(MappedWorldGraph.open(file))};
+			for(World world: worlds) {
+				assertEquals("observatory", world.locateItem("Telescope").getName());
+				assertEquals("outside", world.locateItem("Basket").getName());
+				world.pickItem("Basket");
+				assertNull(world.locateItem("Basket"));
+				assertTrue(world.isCollected("Basket"));
+				world.goForward();
+				world.putItem("Basket");
+				assertEquals("sarbievijus", world.locateItem("Basket").getName());
+				assertNull(world.locateItem("Umbrella"));
+			}
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+
+	/**
+	 * Tests if item which is not in current
+	 * Location cannot be picked
+	 */
+	@Test
+	public void pickElsewhereTest() {
+
+		World world = new World();
+		world.pickItem("Telescope");
+		assertFalse(world.isCollected("Telescope"));
+		assertEquals("observatory", world.locateItem("Telescope").getName());
+	}
+
+
+	/**
+	 * Tests if duplicate item names are reported
+	 */
+	@Test
+	public void duplicateNameTest() {
+
+		try {
+			new World(new StringReader("location\tyard\tN.jpg\tS.jpg\tW.jpg\tE.jpg\n"
+					+ "item\tyard\tBench\tbench.png\n"
+					+ "item\tyard\tBench\tbench.png\n"));
+			fail("Duplicate item name is not reported");
+		}
+		catch(IllegalArgumentException | IOException e) {
+			assertTrue(e.getMessage().contains("Bench"));
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import model.Location;
+import model.LocationGraph;
+import model.MappedWorldGraph;
+import model.NavigationCursor;
+import model.World;
+
+/**
+ * A contention stress test of picking and putting items by many sessions sharing one World.
+ * Sessions walk around a ring of Locations and pick and put items at random. The test checks
+ * that an item is never owned by two sessions at once, that no Location holds more than
+ * Location.MAX_ITEMS items and that no item is lost or duplicated. The paged graph is tested with
+ * a cache smaller than the number of sessions, so Locations are evicted while sessions are in them.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class ItemTransferStressTest {
+
+	private static final int LOCATIONS = 8; // Locations in the ring
+	private static final int ITEMS_PER_LOCATION = 2; // items placed in every Location
+	private static final int SESSIONS = 16; // concurrent sessions
+	private static final int STEPS = 20000; // steps of every session
+	private static final int CACHE_SIZE = 2; // Locations cached by the paged graph
+
+	/**
+	 * Tests if ownership of the items stays exclusive
+	 */
+	@Test
+	public void concurrentTransferTest() throws IOException, InterruptedException {
+
+		transfer(new World(LocationGraph.of(new World(new StringReader(createRing())))));
+	}
+
+
+	/**
+	 * Tests if ownership of the items stays exclusive
+	 * when the Locations are evicted from the paged graph
+	 */
+	@Test
+	public void pagedTransferTest() throws IOException, InterruptedException {
+
+		Path file = Files.createTempFile("ring", ".wgraph");
+		try {
+			MappedWorldGraph.write(new World(new StringReader(createRing())), file);
+			transfer(new World(MappedWorldGraph.open(file, CACHE_SIZE)));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+
+	/**
+	 * Picks and puts items by concurrent sessions of the World
+	 * and checks every item is owned exactly once
+	 *
+	 * @param world World navigating the ring
+	 * @throws InterruptedException if interrupted while waiting for the sessions
+	 */
+	private static void transfer(World world) throws InterruptedException
+	{
+		ConcurrentHashMap<String, AtomicInteger> holders = new ConcurrentHashMap<String, AtomicInteger>();
+		for(int l = 0; l < LOCATIONS; l++) {
+			for(int i = 0; i < ITEMS_PER_LOCATION; i++) {
+				holders.put(itemName(l, i), new AtomicInteger());
+			}
+		}
+		AtomicInteger violations = new AtomicInteger();
+		NavigationCursor[] cursors = new NavigationCursor[SESSIONS];
+		Thread[] threads = new Thread[SESSIONS];
+		CountDownLatch start = new CountDownLatch(1);
+		for(int s = 0; s < SESSIONS; s++) {
+			NavigationCursor cursor = world.openCursor();
+			Random random = new Random(s);
+			cursors[s] = cursor;
+			threads[s] = new Thread(() -> {
+				try {
+					start.await();
+				}
+				catch(InterruptedException e) {
+					return;
+				}
+				for(int i = 0; i < STEPS; i++) {
+					int step = random.nextInt(4);
+					if(step == 0) {
+						cursor.goForward();
+					}
+					else if(step == 1) {
+						cursor.goRight();
+					}
+					else if(step == 2) {
+						List<String> names = new ArrayList<String>(cursor.getItemNames());
+						if(!names.isEmpty()) {
+							String name = names.get(random.nextInt(names.size()));
+							//Exactly one session may hold a picked item
+							if(cursor.pickItem(name) && holders.get(name).incrementAndGet() != 1) {
+								violations.incrementAndGet();
+							}
+						}
+					}
+					else {
+						List<String> names = new ArrayList<String>(cursor.getCollectedItemNames());
+						if(!names.isEmpty()) {
+							String name = names.get(random.nextInt(names.size()));
+							holders.get(name).decrementAndGet();
+							if(!cursor.putItem(name)) {
+								holders.get(name).incrementAndGet();
+							}
+							if(cursor.getLocation().getLocationContent().size() > Location.MAX_ITEMS) {
+								violations.incrementAndGet();
+							}
+						}
+					}
+				}
+			});
+			//Exceptions in sessions are counted as violations
+			threads[s].setUncaughtExceptionHandler((thread, e) -> violations.incrementAndGet());
+			threads[s].start();
+		}
+		start.countDown();
+		for(Thread thread: threads) {
+			thread.join();
+		}
+		assertEquals(0, violations.get());
+
+		//Every item is either in one Location or collected by one session
+		HashSet<String> found = new HashSet<String>();
+		int count = 0;
+		for(NavigationCursor cursor: cursors) {
+			for(String name: cursor.getCollectedItemNames()) {
+				assertTrue(found.add(name));
+				assertNull(world.locateItem(name));
+				count++;
+			}
+		}
+		for(int l = 0; l < LOCATIONS; l++) {
+			Location location = world.getLocation("L" + l);
+			assertTrue(location.getLocationContent().size() <= Location.MAX_ITEMS);
+			for(String name: location.getItemNames()) {
+				assertTrue(found.add(name));
+				assertEquals(location, world.locateItem(name));
+				count++;
+			}
+		}
+		assertEquals(LOCATIONS * ITEMS_PER_LOCATION, count);
+	}
+
+
+	/**
+	 * Creates world file of Locations linked to a ring
+	 * with ITEMS_PER_LOCATION items in every Location
+	 *
+	 * @return String world file
+	 */
+	private static String createRing()
+	{
+		StringBuilder world = new StringBuilder();
+		for(int l = 0; l < LOCATIONS; l++) {
+			world.append("location\tL").append(l).append("\tn.jpg\ts.jpg\tw.jpg\te.jpg\n");
+		}
+		for(int l = 0; l < LOCATIONS; l++) {
+			world.append("neighbour\tL").append(l).append("\tNORTH\tL").append((l + 1) % LOCATIONS).append('\n');
+			for(int i = 0; i < ITEMS_PER_LOCATION; i++) {
+				world.append("item\tL").append(l).append('\t').append(itemName(l, i)).append("\titem.png\n");
+			}
+		}
+		return world.toString();
+	}
+
+
+	/**
+	 * Gets name of an item
+	 *
+	 * @param location int number of the Location the item is placed in
+	 * @param item int number of the item in the Location
+	 * @return String name
+	 */
+	private static String itemName(int location, int item)
+	{
+		return "Item" + location + "_" + item;
+	}
+
+}
@@ -0,0 +1,109 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+import model.Direction;
+import model.LocationGraph;
+import model.NavigationCursor;
+import model.World;
+
+/**
+ * A test class for the array-backed LocationGraph.
+ * The tests are performed to check if World navigates the graph the same way
+ * as the registered Locations it was created from.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class LocationGraphTest {
+
+	/**
+	 * Tests if views and neighbours are the same
+	 * as in the registered Locations
+	 */
+	@Test
+	public void navigationTest() {
+
+		World objects = new World();
+		World graph = new World(LocationGraph.of(new World()));
+		assertEquals(objects.getCurrentView(), graph.getCurrentView());
+		String[] steps = {"F", "R", "F", "L", "L", "F", "R", "R", "F", "F", "L", "F"};
+		for(String step: steps) {
+			assertEquals(objects.canMoveForward(), graph.canMoveForward());
+			switch(step) {
+			    case "L":
+			    	assertEquals(objects.goLeft(), graph.goLeft());
+			    	break;
+			    case "R":
+			    	assertEquals(objects.goRight(), graph.goRight());
+			    	break;
+			    default:
+			    	assertEquals(objects.goForward(), graph.goForward());
+			}
+			assertEquals(objects.getCurrentLocation().getName(), graph.getCurrentLocation().getName());
+			assertEquals(objects.getItemNames(), graph.getItemNames());
+		}
+	}
+
+
+	/**
+	 * Tests if neighbour mask and name lookup
+	 * match the neighbours of the Locations
+	 */
+	@Test
+	public void neighbourTest() {
+
+		World world = new World();
+		LocationGraph graph = LocationGraph.of(world);
+		int sarbievijus = graph.findLocation("sarbievijus");
+		assertTrue(graph.hasNeighbour(sarbievijus, Direction.NORTH));
+		assertTrue(graph.hasNeighbour(sarbievijus, Direction.EAST));
+		assertFalse(graph.hasNeighbour(sarbievijus, Direction.WEST));
+		assertEquals("pSkarga", graph.getName(graph.getNeighbour(sarbievijus, Direction.EAST)));
+		assertEquals(-1, graph.findLocation("library"));
+	}
+
+
+	/**
+	 * Tests if sessions sharing the graph navigate
+	 * independently and share the items
+	 */
+	@Test
+	public void cursorTest() {
+
+		World world = new World(LocationGraph.of(new World()));
+		NavigationCursor first = world.openCursor();
+		NavigationCursor second = world.openCursor();
+		first.goForward();
+		assertEquals("sarbievijus", first.getLocationName());
+		assertEquals("outside", second.getLocationName());
+		assertEquals("outside", world.getCurrentLocation().getName());
+		assertTrue(second.pickItem("Basket"));
+		assertFalse(world.getItemNames().contains("Basket"));
+		assertFalse(world.openCursor().pickItem("Basket"));
+		assertTrue(second.putItem("Basket"));
+		assertTrue(world.getItemNames().contains("Basket"));
+	}
+
+
+	/**
+	 * Tests if picked items stay picked after
+	 * leaving the Location and coming back
+	 */
+	@Test
+	public void itemTest() {
+
+		World world = new World(LocationGraph.of(new World()));
+		world.pickItem("Basket");
+		world.goForward();
+		world.goRight();
+		world.goRight();
+		world.goForward();
+		assertFalse(world.getItemNames().contains("Basket"));
+		assertTrue(world.getCollectedItemNames().contains("Basket"));
+	}
+
+}
@@ -0,0 +1,79 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+/**
+ * A test class for the MetricsRegistry class.
+ * The tests are performed to check if percentiles of the histograms are
+ * accurate and if metrics are exposed as MBeans and written to a file.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class MetricsRegistryTest {
+
+	/**
+	 * Tests if percentiles are within the
+	 * relative error of the buckets
+	 */
+	@Test
+	public void percentileTest() {
+		
+		LatencyHistogram histogram = new MetricsRegistry("test", null).histogram("latency");
+		for(long micros = 1; micros <= 1000; micros++) {
+			histogram.record(micros * 1000);
+		}
+		
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500.5, histogram.getMeanMillis() * 1000, 1e-9);
+		assertEquals(1.0, histogram.getMaxMillis(), 1e-9);
+		assertEquals(500_000, histogram.getPercentile(0.50), 500_000 / 8);
+		assertEquals(990_000, histogram.getPercentile(0.99), 990_000 / 8);
+		assertEquals(1_000_000, histogram.getPercentile(1.0));
+		histogram.reset();
+		assertEquals(0, histogram.getPercentile(0.50));
+	}
+	
+	
+	/**
+	 * Tests if metrics are registered as MBeans 
+	 * and written to a file
+	 */
+	@Test
+	public void exposeTest() throws Exception {
+		
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		MetricsRegistry registry = new MetricsRegistry("metricsTest", server);
+		registry.histogram("navigation").record(2_000_000);
+		registry.counter("picks").increment();
+		registry.gauge("decodedImageBytes", () -> 1024);
+		
+		assertEquals(1L, server.getAttribute(new ObjectName("metricsTest:type=Counter,name=picks"), "Count"));
+		assertEquals(1024.0, server.getAttribute(new ObjectName("metricsTest:type=Gauge,name=decodedImageBytes"), "Value"));
+		assertEquals(2.0, (Double) server.getAttribute(new ObjectName("metricsTest:type=Histogram,name=navigation"), "MaxMillis"), 1e-9);
+		
+		Path file = Files.createTempFile("metrics", ".txt");
+		server.invoke(new ObjectName("metricsTest:type=Metrics"), "dump", new Object[] {file.toString()}, 
+				new String[] {String.class.getName()});
+		String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.delete(file);
+		assertTrue(text.contains("counter picks 1\n"));
+		assertTrue(text.contains("gauge decodedImageBytes 1024\n"));
+		assertTrue(text.contains("histogram navigation count=1 "));
+	}
+
+}
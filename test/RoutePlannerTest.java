@@ -0,0 +1,178 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import model.Direction;
+import model.LocationGraph;
+import model.Route;
+import model.RoutePlanner;
+import model.World;
+
+/**
+ * A test class for the RoutePlanner.
+ * The tests are performed to check if routes found by both indexes are shortest
+ * and if following their steps leads to the target Location.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class RoutePlannerTest {
+
+	private static final int SIDE = 12; // Locations on a side of the grid
+
+	/**
+	 * Tests if both indexes find routes of the same
+	 * length and steps of the routes reach the target
+	 */
+	@Test
+	public void shortestRouteTest() throws IOException {
+
+		LocationGraph graph = LocationGraph.of(new World(new StringReader(createGrid())));
+		RoutePlanner allPairs = new RoutePlanner(graph, true);
+		RoutePlanner landmarks = new RoutePlanner(graph, false);
+		for(int from = 0; from < graph.size(); from += 7) {
+			for(int to = 0; to < graph.size(); to++) {
+				Route route = allPairs.findRoute(from, Direction.EAST, to);
+				Route searched = landmarks.findRoute(from, Direction.EAST, to);
+				if(route == null) {
+					assertNull(searched);
+					continue;
+				}
+				assertEquals(route.getLength(), searched.getLength());
+				assertEquals(to, route.getTargetId());
+				assertEquals(to, follow(graph, from, Direction.EAST, searched.getSteps()));
+			}
+		}
+	}
+
+
+	/**
+	 * Tests if World follows the planned route
+	 * and teleports to a Location
+	 */
+	@Test
+	public void worldRouteTest() {
+
+		World world = new World();
+		Route route = world.planRoute("observatory");
+		assertEquals(3, route.getLength());
+		for(char step: route.getSteps().toCharArray()) {
+			if(step == 'L') {
+				world.goLeft();
+			}
+			else if(step == 'R') {
+				world.goRight();
+			}
+			else {
+				world.goForward();
+			}
+		}
+		assertEquals("observatory", world.getCurrentLocation().getName());
+		assertEquals(0, world.planRoute("observatory").getLength());
+
+		World graph = new World(LocationGraph.of(new World()));
+		assertEquals("sarbievijusNorth.jpg", graph.teleport("sarbievijus"));
+		assertEquals("sarbievijus", graph.getCurrentLocation().getName());
+		assertEquals(1, graph.planRoute("sDaukantas").getLength());
+	}
+
+
+	/**
+	 * Tests if a neighbour which is not linked back is
+	 * not used for the way back and if world file
+	 * redefining a neighbour is reported
+	 */
+	@Test
+	public void oneWayNeighbourTest() throws IOException {
+
+		World world = new World(new StringReader("location\tA\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+				+ "location\tB\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+				+ "location\tC\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+				+ "neighbour\tA\tNORTH\tB\n"));
+		//B still leads back to A, but A leads to C
+		world.getLocation("A").addNeighbour(world.getLocation("C"), Direction.NORTH);
+		LocationGraph graph = LocationGraph.of(world);
+		int a = graph.findLocation("A");
+		int b = graph.findLocation("B");
+		int c = graph.findLocation("C");
+		for(RoutePlanner planner: new RoutePlanner[] {new RoutePlanner(graph, true), new RoutePlanner(graph, false)}) {
+			assertNull(planner.findRoute(c, Direction.NORTH, b));
+			assertNull(planner.findRoute(a, Direction.NORTH, b));
+			assertEquals(2, planner.findRoute(b, Direction.NORTH, c).getLength());
+			assertEquals(c, follow(graph, b, Direction.NORTH, planner.findRoute(b, Direction.NORTH, c).getSteps()));
+		}
+
+		try {
+			new World(new StringReader("location\tA\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+					+ "location\tB\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+					+ "location\tC\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+					+ "neighbour\tA\tNORTH\tB\n"
+					+ "neighbour\tA\tNORTH\tC\n"));
+			fail("Redefined neighbour is not reported");
+		}
+		catch(IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("line 5"));
+		}
+	}
+
+
+	/**
+	 * Follows the steps in the graph
+	 *
+	 * @return int id of the Location reached
+	 */
+	private static int follow(LocationGraph graph, int from, Direction facing, String steps)
+	{
+		int location = from;
+		Direction direction = facing;
+		for(char step: steps.toCharArray()) {
+			if(step == 'L') {
+				direction = direction.getLeft();
+			}
+			else if(step == 'R') {
+				direction = direction.getRight();
+			}
+			else {
+				assertTrue(graph.hasNeighbour(location, direction));
+				location = graph.getNeighbour(location, direction);
+			}
+		}
+		return location;
+	}
+
+
+	/**
+	 * Creates world file of a grid with a wall
+	 * in the middle and one separated Location
+	 *
+	 * @return String world file
+	 */
+	private static String createGrid()
+	{
+		StringBuilder world = new StringBuilder();
+		for(int i = 0; i < SIDE * SIDE; i++) {
+			world.append("location\tG").append(i).append("\tn.jpg\ts.jpg\tw.jpg\te.jpg\n");
+		}
+		world.append("location\tIsland\tn.jpg\ts.jpg\tw.jpg\te.jpg\n");
+		for(int y = 0; y < SIDE; y++) {
+			for(int x = 0; x < SIDE; x++) {
+				int i = y * SIDE + x;
+				//Wall between columns 5 and 6 has a gap in the last row only
+				if(x + 1 < SIDE && (x != 5 || y == SIDE - 1)) {
+					world.append("neighbour\tG").append(i).append("\tEAST\tG").append(i + 1).append('\n');
+				}
+				if(y + 1 < SIDE) {
+					world.append("neighbour\tG").append(i).append("\tNORTH\tG").append(i + SIDE).append('\n');
+				}
+			}
+		}
+		return world.toString();
+	}
+
+}
@@ -0,0 +1,156 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import model.LocationGraph;
+import model.SessionJournal;
+import model.World;
+
+/**
+ * A test class for the SessionJournal.
+ * The tests are performed to check if a World resumed from the journal is in the same
+ * state as the World which was recorded, with and without snapshots.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class SessionJournalTest {
+
+	/**
+	 * Tests if records are replayed after a crash,
+	 * dropping the record which was cut off
+	 */
+	@Test
+	public void replayTest() throws IOException {
+
+		Path file = Files.createTempFile("session", ".journal");
+		Files.delete(file);
+		World world = new World();
+		SessionJournal journal = SessionJournal.open(file, world);
+		world.goForward();
+		world.pickItem("Sarbievijus");
+		world.goRight();
+		world.goForward();
+		world.putItem("Sarbievijus");
+		world.pickItem("Petras Skarga");
+		//Crash while writing a pick record
+		Files.write(file, new byte[] {4, 0, 9, 'T'}, StandardOpenOption.APPEND);
+
+		World resumed = new World();
+		SessionJournal.open(file, resumed).close();
+		assertSameState(world, resumed);
+		journal.close();
+		delete(file);
+	}
+
+
+	/**
+	 * Tests if a long session of a graph World
+	 * resumes from snapshots
+	 */
+	@Test
+	public void snapshotTest() throws IOException {
+
+		Path file = Files.createTempFile("session", ".journal");
+		Files.delete(file);
+		World world = new World(LocationGraph.of(new World()));
+		SessionJournal journal = SessionJournal.open(file, world);
+		Random random = new Random(1);
+		for(int i = 0; i < SessionJournal.SNAPSHOT_INTERVAL * 3 + 17; i++) {
+			int step = random.nextInt(5);
+			if(step == 0) {
+				world.goLeft();
+			}
+			else if(step == 1) {
+				world.goForward();
+			}
+			else if(step == 2 && !world.getItemNames().isEmpty()) {
+				world.pickItem(world.getItemNames().get(0));
+			}
+			else if(step == 3 && !world.getCollectedItemNames().isEmpty()) {
+				world.putItem(world.getCollectedItemNames().iterator().next());
+			}
+			else {
+				world.goRight();
+			}
+		}
+		assertTrue(Files.exists(file.resolveSibling(file.getFileName() + SessionJournal.SNAPSHOT_EXTENSION)));
+		World resumed = new World(LocationGraph.of(new World()));
+		SessionJournal.open(file, resumed).close();
+		assertSameState(world, resumed);
+		journal.close();
+
+		World closed = new World(LocationGraph.of(new World()));
+		SessionJournal.open(file, closed).close();
+		assertSameState(world, closed);
+		delete(file);
+	}
+	
+	
+	/**
+	 * Tests if a Location placed with more than
+	 * Location.MAX_ITEMS items by the world file
+	 * gets all of them back from a snapshot
+	 */
+	@Test
+	public void crowdedLocationTest() throws IOException {
+
+		String worldFile = "location\tyard\tn.jpg\ts.jpg\tw.jpg\te.jpg\n"
+				+ "item\tyard\tA\ta.png\n" + "item\tyard\tB\tb.png\n" + "item\tyard\tC\tc.png\n"
+				+ "item\tyard\tD\td.png\n" + "item\tyard\tE\te.png\n";
+		Path file = Files.createTempFile("session", ".journal");
+		Files.delete(file);
+		World world = new World(new StringReader(worldFile));
+		SessionJournal journal = SessionJournal.open(file, world);
+		world.pickItem("A");
+		journal.snapshot();
+		journal.close();
+
+		World resumed = new World(new StringReader(worldFile));
+		SessionJournal.open(file, resumed).close();
+		assertSameState(world, resumed);
+		assertEquals(Arrays.asList("B", "C", "D", "E"), resumed.getItemNames());
+		assertEquals("yard", resumed.locateItem("E").getName());
+		assertTrue(resumed.isCollected("A"));
+		delete(file);
+	}
+
+
+	/**
+	 * Deletes journal and its snapshot
+	 */
+	private static void delete(Path file) throws IOException
+	{
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(file.resolveSibling(file.getFileName() + SessionJournal.SNAPSHOT_EXTENSION));
+	}
+
+
+	/**
+	 * Checks if views, collected items and items
+	 * of every Location are the same
+	 */
+	private static void assertSameState(World expected, World actual)
+	{
+		assertEquals(expected.getCurrentLocation().getName(), actual.getCurrentLocation().getName());
+		assertEquals(expected.getCurrentDirection(), actual.getCurrentDirection());
+		assertEquals(new HashSet<String>(expected.getCollectedItemNames()),
+				new HashSet<String>(actual.getCollectedItemNames()));
+		for(String name: expected.getLocationNames()) {
+			assertEquals(expected.getLocation(name).getItemNames(), actual.getLocation(name).getItemNames());
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import model.Item;
+import model.Location;
+import model.LocationGraph;
+import model.World;
+import model.WorldChangeListener;
+
+/**
+ * A test class for the change events of World.
+ * The tests are performed to check if World notifies exactly the changes of the session,
+ * both when it navigates registered Locations and a LocationGraph.
+ *
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class WorldChangeTest {
+
+	/**
+	 * Tests events of navigation, picking and putting
+	 */
+	@Test
+	public void eventsTest() {
+
+		for(World world: new World[] {new World(), new World(LocationGraph.of(new World()))}) {
+			ArrayList<String> events = new ArrayList<String>();
+			world.addWorldChangeListener(new WorldChangeListener() {
+				public void locationChanged(Location location) { events.add("location " + location.getName()); }
+				public void itemAdded(Location location, Item item) { events.add("added " + item.getName()); }
+				public void itemRemoved(Location location, Item item) { events.add("removed " + item.getName()); }
+				public void itemCollected(Item item) { events.add("collected " + item.getName()); }
+				public void itemReleased(Item item) { events.add("released " + item.getName()); }
+				public void forwardChanged(boolean canMoveForward) { events.add("forward " + canMoveForward); }
+			});
+			world.pickItem("Basket");
+			world.pickItem("Telescope");
+			world.goForward();
+			world.goRight();
+			world.goRight();
+			world.putItem("Basket");
+			world.goForward();
+			//Sarbievijus has neighbours to the north, east and south
+			assertEquals("[removed Basket, collected Basket, location sarbievijus, added Basket, released Basket, "
+					+ "location outside, forward false]", events.toString());
+		}
+	}
+
+}
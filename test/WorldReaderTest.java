@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import model.World;
+
+/**
+ * A test class for reading a World from a world file.
+ * The tests are performed to check if Locations, neighbours and items are defined as in the file.
+ * 
+ * @author Ruta Binkyte-Sadauskiene e-mail:s1792395@sms.ed.ac.uk
+ * @version 1.0
+ *
+ */
+public class WorldReaderTest {
+	
+	private static final String WORLD = "# test world\n"
+			+ "location\tyard\tyardN.jpg\tyardS.jpg\tyardW.jpg\tyardE.jpg\n"
+			+ "location\tgarden\tgardenN.jpg\tgardenS.jpg\tgardenW.jpg\tgardenE.jpg\n"
+			+ "neighbour\tyard\tEAST\tgarden\n"
+			+ "item\tgarden\tGreen Bench\tbench.png\n"
+			+ "start\tyard\n";
+
+	/**
+	 * Tests if start Location and its view are set
+	 */
+	@Test
+	public void startLocationTest() throws IOException {
+		
+		World world = new World(new StringReader(WORLD));
+		assertEquals("yard", world.getCurrentLocation().getName());
+		assertEquals("yardN.jpg", world.getCurrentView());
+	}
+	
+	
+	/**
+	 * Tests if neighbours are linked both ways
+	 * and items are added to the Location
+	 */
+	@Test
+	public void neighbourAndItemTest() throws IOException {
+		
+		World world = new World(new StringReader(WORLD));
+		world.goRight();
+		assertEquals("gardenE.jpg", world.goForward());
+		assertTrue(world.getItemNames().contains("Green Bench"));
+		world.goRight();
+		world.goRight();
+		assertEquals("yardW.jpg", world.goForward());
+	}
+	
+	
+	/**
+	 * Tests if using a Location before it is defined is reported
+	 */
+	@Test
+	public void undefinedLocationTest() {
+		
+		try {
+			new World(new StringReader("neighbour\tyard\tEAST\tgarden\n"));
+			fail("Undefined location is not reported");
+		}
+		catch(IllegalArgumentException | IOException e) {
+			assertTrue(e.getMessage().contains("line 1"));
+		}
+	}
+
+}